@@ -0,0 +1,308 @@
+package com.quickpoll.backend.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Weight-bounded cache with approximate LRU eviction. Reads are a ConcurrentHashMap lookup plus a slot in a
+ * per-thread-striped buffer; the access order is only rewritten under the eviction lock, when a buffer fills
+ * or a write comes through. A read that finds its buffer full is dropped from the recency order, which makes
+ * eviction sampled rather than exact under heavy read load.
+ */
+public class WeightedLruCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, Load<V>> loading = new ConcurrentHashMap<>();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int readBufferMask;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Access order, eldest first. Guarded by evictionLock.
+    private final Node<K, V> head = new Node<>(null, null, 0);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long weight;
+
+    @SuppressWarnings("unchecked")
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        this.readBufferMask = stripes - 1;
+        head.prev = head;
+        head.next = head;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        Load<V> load = new Load<>();
+        Load<V> existing = loading.putIfAbsent(key, load);
+        if (existing != null) {
+            try {
+                return existing.future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            value = loader.apply(key);
+            if (value != null) {
+                evictionLock.lock();
+                try {
+                    if (!load.stale) {
+                        putInternal(key, value);
+                    }
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            load.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    public void put(K key, V value) {
+        evictionLock.lock();
+        try {
+            putInternal(key, value);
+            markStale(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void update(K key, UnaryOperator<V> updater) {
+        evictionLock.lock();
+        try {
+            Node<K, V> current = entries.get(key);
+            if (current != null) {
+                putInternal(key, updater.apply(current.value));
+            }
+            markStale(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> removed = entries.remove(key);
+            if (removed != null) {
+                unlink(removed);
+                weight -= removed.weight;
+            }
+            markStale(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private void recordRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[stripe()];
+        long pending = buffer.offer(node);
+        if (pending >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & readBufferMask;
+    }
+
+    private void markStale(K key) {
+        Load<V> load = loading.get(key);
+        if (load != null) {
+            load.stale = true;
+        }
+    }
+
+    // Callers hold evictionLock.
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drainTo(this::moveToTail);
+        }
+    }
+
+    private void putInternal(K key, V value) {
+        drainReadBuffers();
+        long valueWeight = weigher.applyAsLong(value);
+        Node<K, V> node = entries.get(key);
+        if (node != null) {
+            weight += valueWeight - node.weight;
+            node.value = value;
+            node.weight = valueWeight;
+            moveToTail(node);
+        } else {
+            node = new Node<>(key, value, valueWeight);
+            entries.put(key, node);
+            linkLast(node);
+            weight += valueWeight;
+        }
+
+        Node<K, V> eldest = head.next;
+        while (weight > maxWeight && eldest != head) {
+            Node<K, V> next = eldest.next;
+            if (eldest != node) {
+                entries.remove(eldest.key, eldest);
+                unlink(eldest);
+                weight -= eldest.weight;
+                evictions.increment();
+            }
+            eldest = next;
+        }
+    }
+
+    private void moveToTail(Node<K, V> node) {
+        // Buffered reads can name a node that was evicted or invalidated since.
+        if (node.next == null) {
+            return;
+        }
+        unlink(node);
+        linkLast(node);
+    }
+
+    private void linkLast(Node<K, V> node) {
+        Node<K, V> tail = head.prev;
+        node.prev = tail;
+        node.next = head;
+        tail.next = node;
+        head.prev = node;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        volatile V value;
+        long weight;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Lossy ring of recently read nodes. Any thread may offer; only the holder of the eviction lock drains.
+     */
+    private static class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        /**
+         * Returns how many reads are waiting, or the full size when this one was dropped.
+         */
+        long offer(Node<K, V> node) {
+            long write = writes.get();
+            long pending = write - reads;
+            if (pending >= READ_BUFFER_SIZE || !writes.compareAndSet(write, write + 1)) {
+                return READ_BUFFER_SIZE;
+            }
+            slots.lazySet((int) write & READ_BUFFER_MASK, node);
+            return pending + 1;
+        }
+
+        void drainTo(Consumer<Node<K, V>> sink) {
+            long read = reads;
+            long write = writes.get();
+            for (; read < write; read++) {
+                int index = (int) read & READ_BUFFER_MASK;
+                Node<K, V> node = slots.get(index);
+                if (node == null) {
+                    // Claimed but not yet published; pick it up on the next drain.
+                    break;
+                }
+                slots.lazySet(index, null);
+                sink.accept(node);
+            }
+            reads = read;
+        }
+    }
+
+    private static class Load<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile boolean stale;
+    }
+}
@@ -0,0 +1,64 @@
+package com.quickpoll.backend.config;
+
+import com.quickpoll.backend.cache.WeightedLruCache;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.QrCodeService;
+import com.quickpoll.backend.service.SharePageService;
+import com.quickpoll.backend.service.VoterIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public WeightedLruCache<Long, PollSnapshot> pollSnapshotCache(MeterRegistry meterRegistry,
+            @Value("${app.cache.polls.max-bytes:33554432}") long maxBytes) {
+        return monitor(new WeightedLruCache<>(maxBytes, PollSnapshot::weight), "polls", meterRegistry);
+    }
+
+    @Bean
+    public WeightedLruCache<String, QrCodeService.QrImage> qrCodeCache(MeterRegistry meterRegistry,
+            @Value("${app.cache.qr.max-bytes:16777216}") long maxBytes) {
+        return monitor(new WeightedLruCache<>(maxBytes, QrCodeService.QrImage::weight), "qr", meterRegistry);
+    }
+
+    @Bean
+    public WeightedLruCache<Long, SharePageService.SharePage> sharePageCache(MeterRegistry meterRegistry,
+            @Value("${app.cache.share-pages.max-bytes:16777216}") long maxBytes) {
+        return monitor(new WeightedLruCache<>(maxBytes, SharePageService.SharePage::weight), "share-pages",
+                meterRegistry);
+    }
+
+    @Bean
+    public WeightedLruCache<Long, VoterIndex.VoterFilter> voterFilterCache(MeterRegistry meterRegistry,
+            @Value("${app.votes.voter-index.max-bytes:67108864}") long maxBytes) {
+        return monitor(new WeightedLruCache<>(maxBytes, VoterIndex.VoterFilter::weight), "voter-index",
+                meterRegistry);
+    }
+
+    private static <K, V> WeightedLruCache<K, V> monitor(WeightedLruCache<K, V> cache, String name,
+            MeterRegistry meterRegistry) {
+        Gauge.builder("cache.size", cache, WeightedLruCache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.weight", cache, WeightedLruCache::weight)
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cache, WeightedLruCache::hitCount)
+                .tags("cache", name, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cache, WeightedLruCache::missCount)
+                .tags("cache", name, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", cache, WeightedLruCache::evictionCount)
+                .tag("cache", name)
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -1,14 +1,22 @@
 package com.quickpoll.backend.controller;
 
 import com.quickpoll.backend.dto.CreatePollRequest;
+import com.quickpoll.backend.dto.CreatedPollResponse;
 import com.quickpoll.backend.dto.PollResponse;
 import com.quickpoll.backend.model.Poll;
 import com.quickpoll.backend.service.PollService;
-import com.quickpoll.backend.service.VoteService;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.VoteJournal;
+import com.quickpoll.backend.service.VoteTimeline;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,13 +26,19 @@ import java.util.stream.Collectors;
 public class PollController {
 
     private final PollService pollService;
-    private final VoteService voteService;
+    private final VoteTimeline voteTimeline;
+
+    @Value("${app.polls.batch.max-size:5000}")
+    private int maxBatchSize;
 
     @PostMapping
     public ResponseEntity<?> createPoll(@RequestBody CreatePollRequest request) {
         if (request.getQuestion() == null || request.getQuestion().isBlank()) {
             return ResponseEntity.badRequest().body("Question is required");
         }
+        if (request.getQuestion().length() > PollService.MAX_QUESTION_LENGTH) {
+            return ResponseEntity.badRequest().body("Question is too long");
+        }
 
         if (request.getOptions() == null || request.getOptions().isBlank()) {
             return ResponseEntity.badRequest().body("At least two options are required");
@@ -49,30 +63,79 @@ public class PollController {
                         .build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createPolls(@RequestBody List<CreatePollRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one poll is required");
+        }
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("At most " + maxBatchSize + " polls can be created at once");
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreatePollRequest request = requests.get(i);
+            if (request == null || request.getQuestion() == null || request.getQuestion().isBlank()) {
+                return ResponseEntity.badRequest().body("Poll " + i + ": Question is required");
+            }
+            if (request.getQuestion().length() > PollService.MAX_QUESTION_LENGTH) {
+                return ResponseEntity.badRequest().body("Poll " + i + ": Question is too long");
+            }
+            List<String> options = request.getOptions() == null
+                    ? List.of()
+                    : PollService.parseOptions(request.getOptions());
+            if (options.size() < 2) {
+                return ResponseEntity.badRequest().body("Poll " + i + ": At least two options are required");
+            }
+            for (int j = 0; j < options.size(); j++) {
+                if (options.get(j).length() > PollService.MAX_OPTION_LENGTH) {
+                    return ResponseEntity.badRequest().body("Poll " + i + ": Option " + j + " is too long");
+                }
+            }
+        }
+
+        return ResponseEntity.ok(pollService.createPolls(requests).stream()
+                .map(poll -> CreatedPollResponse.builder()
+                        .id(poll.getId())
+                        .secretKey(poll.getSecretKey())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
     @GetMapping("/{pollId}")
     public ResponseEntity<?> getPoll(@PathVariable Long pollId,
-            @RequestParam(required = false) String voterToken) {
-        return pollService.findById(pollId)
-                .map(poll -> {
-                    Long userVotedOptionId = null;
-                    if (voterToken != null && !voterToken.isBlank()) {
-                        userVotedOptionId = voteService.getUserVotedOptionId(poll, voterToken);
+            @RequestParam(required = false) String voterToken,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<PollSnapshot> cached = pollService.findCached(pollId);
+            if (cached.isPresent() && ETags.matches(ifNoneMatch, cached.get().etag())) {
+                return notModified(cached.get().etag());
+            }
+        }
+
+        String token = VoteJournal.isValidVoterToken(voterToken) ? voterToken : null;
+        return pollService.findView(pollId, token)
+                .<ResponseEntity<?>>map(view -> {
+                    PollSnapshot poll = view.poll();
+                    String etag = poll.etag();
+                    if (ETags.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
                     }
                     Optional<String> insight = pollService.computeAutoInsight(poll);
 
-                    return ResponseEntity.ok(
-                            PollResponse.builder()
+                    return ResponseEntity.ok()
+                            .cacheControl(CacheControl.noCache())
+                            .eTag(etag)
+                            .body(PollResponse.builder()
                                     .id(poll.getId())
                                     .question(poll.getQuestion())
                                     .expiresAt(poll.getExpiresAt())
-                                    .resultsVisible(poll.getResultsVisible())
-                                    .secretKey(poll.getSecretKey())
-                                    .userVotedOptionId(userVotedOptionId)
+                                    .resultsVisible(poll.isResultsVisible())
+                                    .userVotedOptionId(view.votedOptionId())
                                     .insight(insight.orElse(null))
                                     .options(poll.getOptions().stream().map(opt -> PollResponse.OptionResponse.builder()
-                                            .id(opt.getId())
-                                            .optionText(opt.getOptionText())
-                                            .votes(opt.getVotes())
+                                            .id(opt.id())
+                                            .optionText(opt.optionText())
+                                            .votes(poll.votes(opt.id()))
                                             .build())
                                             .collect(Collectors.toList()))
                                     .build());
@@ -80,13 +143,34 @@ public class PollController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .build();
+    }
+
+    @GetMapping("/{pollId}/timeline")
+    public ResponseEntity<?> getTimeline(@PathVariable Long pollId,
+            @RequestParam(required = false) String resolution) {
+        VoteTimeline.Resolution requested;
+        try {
+            requested = VoteTimeline.Resolution.parse(resolution);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Resolution must be second, minute or hour");
+        }
+        return pollService.findById(pollId)
+                .<ResponseEntity<?>>map(poll -> ResponseEntity.ok(voteTimeline.timeline(poll, requested)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{pollId}/toggle-results")
     public ResponseEntity<?> toggleResults(@PathVariable Long pollId,
             @RequestParam String secretKey,
             @RequestParam boolean visible) {
         return pollService.findById(pollId)
                 .map(poll -> {
-                    if (!poll.getSecretKey().equals(secretKey)) {
+                    if (!poll.hasSecretKey(secretKey)) {
                         return ResponseEntity.status(403).body("Invalid secret key");
                     }
                     pollService.toggleResultsVisibility(poll, visible);
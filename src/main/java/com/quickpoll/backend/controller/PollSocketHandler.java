@@ -0,0 +1,68 @@
+package com.quickpoll.backend.controller;
+
+import com.quickpoll.backend.service.PollService;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.PollSocketService;
+import com.quickpoll.backend.service.ResultsBroadcaster;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PollSocketHandler extends BinaryWebSocketHandler {
+
+    private static final String POLL_ID = "pollId";
+
+    private final PollService pollService;
+    private final ResultsBroadcaster resultsBroadcaster;
+    private final PollSocketService pollSocketService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        Optional<PollSnapshot> found = pollId(session).flatMap(pollService::findById);
+        if (found.isEmpty()) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Poll not found"));
+            return;
+        }
+        PollSnapshot poll = found.get();
+        session.getAttributes().put(POLL_ID, poll.getId());
+        log.debug("WebSocket connection for poll: {}", poll.getId());
+
+        if (poll.isClosed()) {
+            pollSocketService.sendClosed(session, resultsBroadcaster.snapshot(poll));
+            return;
+        }
+        resultsBroadcaster.withSnapshot(poll, snapshot -> pollSocketService.register(poll.getId(), session, snapshot));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().get(POLL_ID) instanceof Long pollId) {
+            pollSocketService.unregister(pollId, session);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket error for session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    private static Optional<Long> pollId(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return Optional.empty();
+        }
+        String path = session.getUri().getPath();
+        try {
+            return Optional.of(Long.parseLong(path.substring(path.lastIndexOf('/') + 1)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,27 +1,24 @@
 package com.quickpoll.backend.controller;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.quickpoll.backend.model.Poll;
-import com.quickpoll.backend.model.PollOption;
 import com.quickpoll.backend.service.PollService;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.QrCodeService;
+import com.quickpoll.backend.service.SharePageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
@@ -29,6 +26,8 @@ import java.util.stream.Collectors;
 public class ShareController {
 
     private final PollService pollService;
+    private final QrCodeService qrCodeService;
+    private final SharePageService sharePageService;
 
     @Value("${app.base-url}")
     private String baseUrl;
@@ -36,57 +35,58 @@ public class ShareController {
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
+    @Value("${app.share.max-age-seconds:5}")
+    private long shareMaxAgeSeconds;
+
     @GetMapping("/poll/{pollId}")
-    public String handlePollRequest(@PathVariable Long pollId,
-            HttpServletRequest request,
-            Model model) {
+    public ResponseEntity<byte[]> handlePollRequest(@PathVariable Long pollId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
 
         String userAgent = request.getHeader("User-Agent");
 
         if (isSocialMediaBot(userAgent)) {
-            log.info("Bot detected for poll {}: {}", pollId, userAgent);
-            return renderOGTemplate(pollId, model);
+            log.debug("Bot detected for poll {}: {}", pollId, userAgent);
+            return renderOGTemplate(pollId, ifNoneMatch);
         }
 
-        log.info("Regular user request for poll {}, redirecting to frontend", pollId);
-        return "redirect:" + frontendUrl + "/poll/" + pollId;
+        log.debug("Regular user request for poll {}, redirecting to frontend", pollId);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(frontendUrl + "/poll/" + pollId))
+                .build();
     }
 
     @GetMapping("/share/poll/{pollId}")
-    public String pollSharePage(@PathVariable Long pollId, Model model) {
-        return renderOGTemplate(pollId, model);
+    public ResponseEntity<byte[]> pollSharePage(@PathVariable Long pollId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return renderOGTemplate(pollId, ifNoneMatch);
     }
 
-    private String renderOGTemplate(Long pollId, Model model) {
-        Optional<Poll> pollOpt = pollService.findById(pollId);
+    private ResponseEntity<byte[]> renderOGTemplate(Long pollId, String ifNoneMatch) {
+        Optional<SharePageService.SharePage> pageOpt = sharePageService.getSharePage(pollId);
 
-        if (pollOpt.isEmpty()) {
-            model.addAttribute("error", "Poll not found");
-            return "error";
+        if (pageOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
 
-        Poll poll = pollOpt.get();
-
-        int totalVotes = poll.getOptions().stream()
-                .mapToInt(PollOption::getVotes)
-                .sum();
+        SharePageService.SharePage page = pageOpt.get();
 
-        String optionsText = poll.getOptions().stream()
-                .map(PollOption::getOptionText)
-                .collect(Collectors.joining(" vs "));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(page.etag());
+        headers.add("Cache-Control", "max-age=" + shareMaxAgeSeconds);
 
-        String frontendPollUrl = frontendUrl + "/poll/" + pollId;
+        if (ETags.matches(ifNoneMatch, page.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(headers)
+                    .build();
+        }
 
-        model.addAttribute("pollId", pollId);
-        model.addAttribute("question", poll.getQuestion());
-        model.addAttribute("optionsText", optionsText);
-        model.addAttribute("totalVotes", totalVotes);
-        model.addAttribute("shareUrl", frontendPollUrl);
-        model.addAttribute("qrImageUrl", baseUrl + "/share/poll/" + pollId + "/qr");
-        model.addAttribute("appName", "QuickPoll");
-        model.addAttribute("frontendUrl", frontendPollUrl);
+        headers.setContentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+        headers.setContentLength(page.html().length);
 
-        return "poll-share";
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(page.html());
     }
 
     private boolean isSocialMediaBot(String userAgent) {
@@ -111,30 +111,36 @@ public class ShareController {
     }
 
     @GetMapping("/share/poll/{pollId}/qr")
-    public ResponseEntity<byte[]> generateQRCode(@PathVariable Long pollId) {
+    public ResponseEntity<byte[]> generateQRCode(@PathVariable Long pollId,
+            @RequestParam(defaultValue = "" + QrCodeService.DEFAULT_SIZE) int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!qrCodeService.isAllowedSize(size)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Optional<Poll> pollOpt = pollService.findById(pollId);
+            Optional<PollSnapshot> pollOpt = pollService.findById(pollId);
             if (pollOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
-            String shareUrl = frontendUrl + "/poll/" + pollId;
+            QrCodeService.QrImage qrCode = qrCodeService.getQrCode(pollId, size);
 
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(shareUrl, BarcodeFormat.QR_CODE, 400, 400);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(qrCode.etag());
+            headers.add("Cache-Control", "max-age=3600");
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            byte[] qrCodeBytes = outputStream.toByteArray();
+            if (ETags.matches(ifNoneMatch, qrCode.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .headers(headers)
+                        .build();
+            }
 
-            HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.IMAGE_PNG);
-            headers.setContentLength(qrCodeBytes.length);
-            headers.add("Cache-Control", "max-age=3600");
+            headers.setContentLength(qrCode.png().length);
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(qrCodeBytes);
+                    .body(qrCode.png());
 
         } catch (Exception e) {
             log.error("Error generating QR code for poll {}: {}", pollId, e.getMessage());
@@ -145,16 +151,12 @@ public class ShareController {
     @GetMapping("/share/poll/{pollId}/urls")
     @ResponseBody
     public ResponseEntity<?> getShareUrls(@PathVariable Long pollId) {
-        Optional<Poll> pollOpt = pollService.findById(pollId);
-        if (pollOpt.isEmpty()) {
+        if (pollService.findById(pollId).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        Poll poll = pollOpt.get();
-
         return ResponseEntity.ok(Map.of(
                 "pollUrl", frontendUrl + "/poll/" + pollId,
-                "creatorUrl", frontendUrl + "/poll/" + pollId + "?secret=" + poll.getSecretKey(),
                 "qrCodeUrl", baseUrl + "/share/poll/" + pollId + "/qr",
                 "shareUrl", baseUrl + "/poll/" + pollId,
                 "whatsappUrl", baseUrl + "/poll/" + pollId 
@@ -1,11 +1,20 @@
 package com.quickpoll.backend.controller;
 
+import com.quickpoll.backend.service.PollService;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.ResultsBroadcaster;
 import com.quickpoll.backend.service.SseService;
+import com.quickpoll.backend.service.VoteTimeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/stream")
 @RequiredArgsConstructor
@@ -14,17 +23,55 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class SseController {
 
     private final SseService sseService;
+    private final PollService pollService;
+    private final ResultsBroadcaster resultsBroadcaster;
+    private final VoteTimeline voteTimeline;
 
     @GetMapping("/poll/{pollId}")
-    public SseEmitter streamPollResults(@PathVariable Long pollId) {
-        log.info("New SSE connection for poll: {}", pollId);
-        return sseService.createEmitter(pollId);
+    public SseEmitter streamPollResults(@PathVariable Long pollId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.debug("New SSE connection for poll: {}", pollId);
+        PollSnapshot poll = findPoll(pollId);
+        return closedEmitter(poll)
+                .orElseGet(() -> sseService.createEmitter(pollId, lastEventId, voteSnapshot(poll)));
     }
 
     @GetMapping("/poll/{pollId}/creator")
     public SseEmitter streamCreatorUpdates(@PathVariable Long pollId,
-            @RequestParam String secretKey) {
-        log.info("Creator SSE connection for poll: {}", pollId);
-        return sseService.createCreatorEmitter(pollId, secretKey);
+            @RequestParam String secretKey,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        PollSnapshot poll = findPoll(pollId);
+        if (!poll.hasSecretKey(secretKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid secret key");
+        }
+        log.debug("Creator SSE connection for poll: {}", pollId);
+        return closedEmitter(poll).orElseGet(() -> sseService.createCreatorEmitter(pollId, secretKey, lastEventId,
+                voteSnapshot(poll)));
+    }
+
+    @GetMapping("/poll/{pollId}/timeline")
+    public SseEmitter streamTimeline(@PathVariable Long pollId, @RequestParam String secretKey) {
+        PollSnapshot poll = findPoll(pollId);
+        if (!poll.hasSecretKey(secretKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid secret key");
+        }
+        log.debug("Timeline SSE connection for poll: {}", pollId);
+        return closedEmitter(poll)
+                .orElseGet(() -> sseService.createTimelineEmitter(pollId, voteTimeline.timeline(poll, null)));
+    }
+
+    private PollSnapshot findPoll(Long pollId) {
+        return pollService.findById(pollId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private Supplier<?> voteSnapshot(PollSnapshot poll) {
+        return () -> resultsBroadcaster.snapshot(poll).toMap();
+    }
+
+    private Optional<SseEmitter> closedEmitter(PollSnapshot poll) {
+        return Optional.of(poll)
+                .filter(PollSnapshot::isClosed)
+                .map(closed -> sseService.createClosedEmitter(closed.getId(), pollService.finalResults(closed)));
     }
 }
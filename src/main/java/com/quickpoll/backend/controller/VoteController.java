@@ -1,16 +1,22 @@
 package com.quickpoll.backend.controller;
 
 import com.quickpoll.backend.dto.VoteRequest;
-import com.quickpoll.backend.model.Poll;
-import com.quickpoll.backend.model.Vote;
 import com.quickpoll.backend.service.DeviceFingerprintService;
 import com.quickpoll.backend.service.PollService;
+import com.quickpoll.backend.service.PollSnapshot;
 import com.quickpoll.backend.service.RateLimitingService;
+import com.quickpoll.backend.service.VoteExportService;
+import com.quickpoll.backend.service.VoteJournal;
 import com.quickpoll.backend.service.VoteService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/polls/{pollId}/votes")
@@ -21,6 +27,7 @@ public class VoteController {
     private final VoteService voteService;
     private final RateLimitingService rateLimitingService;
     private final DeviceFingerprintService deviceFingerprintService;
+    private final VoteExportService voteExportService;
 
     @PostMapping
     public ResponseEntity<?> submitVote(@PathVariable Long pollId,
@@ -29,20 +36,23 @@ public class VoteController {
         if (request.getVoterToken() == null || request.getVoterToken().isBlank()) {
             return ResponseEntity.badRequest().body("Voter token is required");
         }
+        if (!VoteJournal.isValidVoterToken(request.getVoterToken())) {
+            return ResponseEntity.badRequest().body("Voter token is invalid");
+        }
 
         var pollOpt = pollService.findById(pollId);
         if (pollOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        Poll poll = pollOpt.get();
+        PollSnapshot poll = pollOpt.get();
 
         if (pollService.isExpired(poll)) {
             return ResponseEntity.badRequest().body("Poll has expired, voting is closed.");
         }
 
-        String deviceFingerprint = deviceFingerprintService.generateFingerprint(httpRequest);
+        long deviceKey = deviceFingerprintService.fingerprintKey(httpRequest);
 
-        if (rateLimitingService.isRateLimited(deviceFingerprint, pollId)) {
+        if (rateLimitingService.isRateLimited(deviceKey, pollId)) {
             return ResponseEntity.status(429).body("Too many voting attempts from your device. Please try later.");
         }
 
@@ -51,11 +61,39 @@ public class VoteController {
         }
 
         try {
-            Vote vote = voteService.submitVote(poll, request.getOptionId(), request.getVoterToken());
-            pollService.toggleResultsVisibility(poll, true);
+            voteService.submitVote(poll, request.getOptionId(), request.getVoterToken());
+            if (!poll.isResultsVisible()) {
+                pollService.toggleResultsVisibility(poll, true);
+            }
             return ResponseEntity.ok("Vote recorded successfully.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
         }
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVotes(@PathVariable Long pollId,
+            @RequestParam String secretKey,
+            @RequestParam(defaultValue = "csv") String format) {
+        VoteExportService.Format exportFormat;
+        try {
+            exportFormat = VoteExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format must be csv or ndjson");
+        }
+
+        PollSnapshot poll = pollService.findById(pollId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!poll.hasSecretKey(secretKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid secret key");
+        }
+
+        String filename = "poll-" + pollId + "-votes." + exportFormat.extension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(output -> voteExportService.export(poll, exportFormat, output));
+    }
 }
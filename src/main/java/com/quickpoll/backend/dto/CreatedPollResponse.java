@@ -0,0 +1,11 @@
+package com.quickpoll.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CreatedPollResponse {
+    private Long id;
+    private String secretKey;
+}
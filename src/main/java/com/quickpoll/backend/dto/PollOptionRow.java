@@ -0,0 +1,8 @@
+package com.quickpoll.backend.dto;
+
+import java.time.Instant;
+
+public record PollOptionRow(Long pollId, String question, Instant expiresAt, Boolean resultsVisible,
+        String secretKey, Instant createdAt, Long optionId, String optionText, Integer votes,
+        Long votedOptionId) {
+}
@@ -0,0 +1,17 @@
+package com.quickpoll.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+
+@Data
+@Builder
+public class TimelineResponse {
+    private Long pollId;
+    private String resolution;
+    private int bucketSeconds;
+    private Instant from;
+    private int[] counts;
+    // False when some of the requested range predates what this node has recorded.
+    private boolean complete;
+}
@@ -7,7 +7,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "polls")
+// idx_polls_expires_at is created by db/indexes.sql; ddl-auto=validate never creates indexes.
+@Table(name = "polls", indexes = @Index(name = "idx_polls_expires_at", columnList = "expires_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,7 +23,7 @@ public class PollOption {
     @Column(name = "option_text", nullable = false)
     private String optionText;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private int votes = 0;
 }
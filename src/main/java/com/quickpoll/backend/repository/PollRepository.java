@@ -1,9 +1,27 @@
 package com.quickpoll.backend.repository;
 
+import com.quickpoll.backend.dto.PollOptionRow;
 import com.quickpoll.backend.model.Poll;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 public interface PollRepository extends JpaRepository<Poll, Long> {
     Optional<Poll> findBySecretKey(String secretKey);
+
+    @Query("select new com.quickpoll.backend.dto.PollOptionRow(p.id, p.question, p.expiresAt, p.resultsVisible, "
+            + "p.secretKey, p.createdAt, o.id, o.optionText, o.votes, "
+            + "(select v.option.id from Vote v where v.poll.id = p.id and v.voterToken = :voterToken)) "
+            + "from Poll p left join p.options o where p.id = :id order by o.id")
+    List<PollOptionRow> findRowsById(@Param("id") Long id, @Param("voterToken") String voterToken);
+
+    @Modifying
+    @Transactional
+    @Query("update Poll p set p.resultsVisible = :visible where p.id = :id "
+            + "and (p.resultsVisible is null or p.resultsVisible <> :visible)")
+    int updateResultsVisible(@Param("id") Long id, @Param("visible") boolean visible);
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.quickpoll.backend.repository;
 
 import com.quickpoll.backend.model.Vote;
-import com.quickpoll.backend.model.Poll;
 
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface VoteRepository extends JpaRepository<Vote, Long> {
-    boolean existsByPollAndVoterToken(Poll poll, String voterToken);
+    boolean existsByPoll_IdAndVoterToken(Long pollId, String voterToken);
 
-    Optional<Vote> findByPollAndVoterToken(Poll poll, String voterToken);
+    @Query("select v.option.id from Vote v where v.poll.id = :pollId and v.voterToken = :voterToken")
+    Optional<Long> findVotedOptionId(@Param("pollId") Long pollId, @Param("voterToken") String voterToken);
 }
@@ -0,0 +1,41 @@
+package com.quickpoll.backend.service;
+
+import java.util.List;
+
+public class AutoInsight {
+
+    private static final int MIN_VOTES = 20;
+    private static final double CLOSE_MARGIN = 10.0;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final long CLOSE = -1;
+    private static final String CLOSE_TEXT = "Results are close between top options.";
+
+    private volatile Cached cached = new Cached(NONE, null);
+
+    public String current(PollTally tally, List<PollSnapshot.OptionSnapshot> options) {
+        int totalVotes = tally.totalVotes();
+        int top = tally.leader();
+        if (totalVotes < MIN_VOTES || top < 0) {
+            return null;
+        }
+        int runnerUp = tally.runnerUp();
+        int topVotes = tally.votesAt(top);
+        long tenths = Math.round(topVotes * 1000.0 / totalVotes);
+        long key = runnerUp >= 0 && (topVotes - tally.votesAt(runnerUp)) * 100.0 / totalVotes <= CLOSE_MARGIN
+                ? CLOSE
+                : (long) top << 32 | tenths;
+
+        Cached current = cached;
+        if (current.key == key) {
+            return current.text;
+        }
+        String text = key == CLOSE
+                ? CLOSE_TEXT
+                : options.get(top).optionText() + " leads with " + tenths / 10 + "." + tenths % 10 + "% votes.";
+        cached = new Cached(key, text);
+        return text;
+    }
+
+    private record Cached(long key, String text) {
+    }
+}
@@ -4,50 +4,122 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 @Service
 public class DeviceFingerprintService {
 
+    private static final int BUFFER_SIZE = 512;
+    private static final byte[] UNKNOWN_USER_AGENT = "unknown".getBytes(StandardCharsets.UTF_8);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<DigestState> DIGEST = ThreadLocal.withInitial(DigestState::new);
+
     public String generateFingerprint(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        String ipAddress = getClientIpAddress(request);
-        String combined = ipAddress + ":" + (userAgent != null ? userAgent : "unknown");
-        return hashString(combined);
+        return toHex(fingerprintKey(request));
+    }
+
+    public long fingerprintKey(HttpServletRequest request) {
+        return fingerprintKey(request.getHeader("X-Forwarded-For"), request.getHeader("X-Real-IP"),
+                request.getRemoteAddr(), request.getHeader("User-Agent"));
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
+    long fingerprintKey(String xForwardedFor, String xRealIp, String remoteAddr, String userAgent) {
+        DigestState state = DIGEST.get();
+        MessageDigest digest = state.digest;
+
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            int end = xForwardedFor.indexOf(',');
+            state.update(xForwardedFor, 0, end < 0 ? xForwardedFor.length() : end, true);
+        } else if (xRealIp != null && !xRealIp.isEmpty()) {
+            state.update(xRealIp, 0, xRealIp.length(), false);
+        } else {
+            String address = String.valueOf(remoteAddr);
+            state.update(address, 0, address.length(), false);
+        }
+        state.append((byte) ':');
+        if (userAgent != null) {
+            state.update(userAgent, 0, userAgent.length(), false);
+        } else {
+            state.flush();
+            digest.update(UNKNOWN_USER_AGENT);
         }
+        state.flush();
 
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+        byte[] hash = state.digest();
+        long key = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            key = (key << 8) | (hash[i] & 0xff);
         }
+        return key;
+    }
 
-        return request.getRemoteAddr();
+    public static String toHex(long key) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) key & 0xf];
+            key >>>= 4;
+        }
+        return new String(chars);
     }
 
-    private String hashString(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+    private static final class DigestState {
+
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] hash;
+        private int length;
+
+        DigestState() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 not available", e);
+            }
+            hash = new byte[digest.getDigestLength()];
+        }
 
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
+        void update(String value, int start, int end, boolean trim) {
+            if (trim) {
+                while (start < end && value.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && value.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    flush();
+                    digest.update(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                    return;
                 }
-                hexString.append(hex);
+                append((byte) c);
             }
+        }
+
+        void append(byte b) {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = b;
+        }
+
+        byte[] digest() {
+            try {
+                digest.digest(hash, 0, hash.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return hash;
+        }
 
-            return hexString.toString().substring(0, 16);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 not available", e);
+        void flush() {
+            digest.update(buffer, 0, length);
+            length = 0;
         }
     }
 }
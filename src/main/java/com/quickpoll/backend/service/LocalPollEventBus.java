@@ -0,0 +1,21 @@
+package com.quickpoll.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service
+@ConditionalOnProperty(name = "app.event-bus.type", havingValue = "local", matchIfMissing = true)
+public class LocalPollEventBus implements PollEventBus {
+
+    @Override
+    public void publish(PollUpdate update) {
+        // Single node: the publisher has already applied the update and there are no peers to notify.
+    }
+
+    @Override
+    public void subscribe(Consumer<List<PollUpdate>> listener) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.model.Poll;
+import com.quickpoll.backend.model.PollOption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class PollBatchWriter {
+
+    private static final String RESERVE_IDS_SQL = "SELECT "
+            + "(SELECT array_agg(nextval(pg_get_serial_sequence('polls', 'id'))) FROM generate_series(1, ?)), "
+            + "(SELECT array_agg(nextval(pg_get_serial_sequence('poll_options', 'id'))) FROM generate_series(1, ?))";
+
+    private static final String INSERT_SQL = "WITH new_polls AS ("
+            + "INSERT INTO polls (id, question, expires_at, results_visible, secret_key, created_at) "
+            + "SELECT * FROM unnest(?::bigint[], ?::text[], ?::timestamptz[], ?::boolean[], ?::text[], ?::timestamptz[])"
+            + ") INSERT INTO poll_options (id, poll_id, option_text, votes) "
+            + "SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::int[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<Poll> polls) {
+        int optionCount = polls.stream().mapToInt(poll -> poll.getOptions().size()).sum();
+        jdbcTemplate.query(RESERVE_IDS_SQL, (ResultSet rs) -> {
+            rs.next();
+            assignIds(polls, ids(rs.getArray(1)), ids(rs.getArray(2)));
+            return null;
+        }, polls.size(), optionCount);
+
+        Long[] pollIds = new Long[polls.size()];
+        String[] questions = new String[polls.size()];
+        Timestamp[] expiresAt = new Timestamp[polls.size()];
+        Boolean[] resultsVisible = new Boolean[polls.size()];
+        String[] secretKeys = new String[polls.size()];
+        Timestamp[] createdAt = new Timestamp[polls.size()];
+        Long[] optionIds = new Long[optionCount];
+        Long[] optionPollIds = new Long[optionCount];
+        String[] optionTexts = new String[optionCount];
+        Integer[] votes = new Integer[optionCount];
+
+        int o = 0;
+        for (int p = 0; p < polls.size(); p++) {
+            Poll poll = polls.get(p);
+            pollIds[p] = poll.getId();
+            questions[p] = poll.getQuestion();
+            expiresAt[p] = Timestamp.from(poll.getExpiresAt());
+            resultsVisible[p] = poll.getResultsVisible();
+            secretKeys[p] = poll.getSecretKey();
+            createdAt[p] = Timestamp.from(poll.getCreatedAt());
+            for (PollOption option : poll.getOptions()) {
+                optionIds[o] = option.getId();
+                optionPollIds[o] = poll.getId();
+                optionTexts[o] = option.getOptionText();
+                votes[o] = option.getVotes();
+                o++;
+            }
+        }
+
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint", pollIds));
+            ps.setArray(2, connection.createArrayOf("text", questions));
+            ps.setArray(3, connection.createArrayOf("timestamptz", expiresAt));
+            ps.setArray(4, connection.createArrayOf("boolean", resultsVisible));
+            ps.setArray(5, connection.createArrayOf("text", secretKeys));
+            ps.setArray(6, connection.createArrayOf("timestamptz", createdAt));
+            ps.setArray(7, connection.createArrayOf("bigint", optionIds));
+            ps.setArray(8, connection.createArrayOf("bigint", optionPollIds));
+            ps.setArray(9, connection.createArrayOf("text", optionTexts));
+            ps.setArray(10, connection.createArrayOf("integer", votes));
+        });
+    }
+
+    private static void assignIds(List<Poll> polls, long[] pollIds, long[] optionIds) {
+        int o = 0;
+        for (int p = 0; p < polls.size(); p++) {
+            Poll poll = polls.get(p);
+            poll.setId(pollIds[p]);
+            for (PollOption option : poll.getOptions()) {
+                option.setId(optionIds[o++]);
+            }
+        }
+    }
+
+    private static long[] ids(Array array) throws SQLException {
+        if (array == null) {
+            return new long[0];
+        }
+        Object[] values = (Object[]) array.getArray();
+        long[] ids = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ids[i] = ((Number) values[i]).longValue();
+        }
+        return ids;
+    }
+}
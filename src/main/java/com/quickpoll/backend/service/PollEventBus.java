@@ -0,0 +1,11 @@
+package com.quickpoll.backend.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PollEventBus {
+
+    void publish(PollUpdate update);
+
+    void subscribe(Consumer<List<PollUpdate>> listener);
+}
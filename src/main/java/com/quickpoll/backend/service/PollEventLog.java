@@ -0,0 +1,59 @@
+package com.quickpoll.backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+class PollEventLog {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final LoggedEvent[] ring;
+    private long seq;
+
+    PollEventLog(int capacity) {
+        this.ring = new LoggedEvent[capacity];
+    }
+
+    synchronized LoggedEvent append(String eventName, String payload) {
+        long id = ++seq;
+        LoggedEvent event = new LoggedEvent(id, SseEmitter.event()
+                .id(epoch + ":" + id)
+                .name(eventName)
+                .data(payload)
+                .build());
+        ring[(int) (id % ring.length)] = event;
+        return event;
+    }
+
+    synchronized long currentSeq() {
+        return seq;
+    }
+
+    synchronized List<Set<DataWithMediaType>> since(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return null;
+        }
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSeq > seq || seq - lastSeq > ring.length) {
+            return null;
+        }
+        List<Set<DataWithMediaType>> missed = new ArrayList<>((int) (seq - lastSeq));
+        for (long id = lastSeq + 1; id <= seq; id++) {
+            missed.add(ring[(int) (id % ring.length)].frame());
+        }
+        return missed;
+    }
+
+    record LoggedEvent(long seq, Set<DataWithMediaType> frame) {
+    }
+}
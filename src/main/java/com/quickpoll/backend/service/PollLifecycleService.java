@@ -0,0 +1,102 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class PollLifecycleService {
+
+    private static final String EXPIRED_SQL = "SELECT id FROM polls WHERE expires_at > ? AND expires_at <= ? "
+            + "ORDER BY expires_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PollService pollService;
+    private final VoteCounterService voteCounterService;
+    private final ResultsBroadcaster resultsBroadcaster;
+    private final VoterIndex voterIndex;
+    private final VoteTimeline voteTimeline;
+    private final SseService sseService;
+    private final PollSocketService pollSocketService;
+    private final long graceMs;
+    private final Counter finalized;
+    private Instant sweptUntil;
+    // Polls that failed to finalize are behind the watermark now, so they are carried to the next sweep.
+    private Set<Long> failed = new LinkedHashSet<>();
+
+    public PollLifecycleService(JdbcTemplate jdbcTemplate, PollService pollService,
+            VoteCounterService voteCounterService, ResultsBroadcaster resultsBroadcaster, VoterIndex voterIndex,
+            VoteTimeline voteTimeline, SseService sseService, PollSocketService pollSocketService,
+            MeterRegistry meterRegistry,
+            @Value("${app.polls.lifecycle.grace-ms:10000}") long graceMs,
+            @Value("${app.polls.lifecycle.startup-lookback-ms:86400000}") long startupLookbackMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollService = pollService;
+        this.voteCounterService = voteCounterService;
+        this.resultsBroadcaster = resultsBroadcaster;
+        this.voterIndex = voterIndex;
+        this.voteTimeline = voteTimeline;
+        this.sseService = sseService;
+        this.pollSocketService = pollSocketService;
+        this.graceMs = graceMs;
+        this.finalized = Counter.builder("quickpoll.polls.finalized")
+                .description("Expired polls frozen and released")
+                .register(meterRegistry);
+        // Start behind now so polls that expired while this node was down are still finalized.
+        this.sweptUntil = Instant.now().minusMillis(graceMs + startupLookbackMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.polls.lifecycle.sweep-interval-ms:5000}")
+    public synchronized void sweep() {
+        Instant until = Instant.now().minusMillis(graceMs);
+        List<Long> expired;
+        try {
+            expired = jdbcTemplate.queryForList(EXPIRED_SQL, Long.class,
+                    Timestamp.from(sweptUntil), Timestamp.from(until));
+        } catch (Exception e) {
+            log.error("Error finding expired polls: {}", e.getMessage());
+            return;
+        }
+        Set<Long> due = failed;
+        due.addAll(expired);
+        failed = new LinkedHashSet<>();
+        for (Long pollId : due) {
+            try {
+                finalizePoll(pollId);
+            } catch (Exception e) {
+                failed.add(pollId);
+                log.error("Error finalizing poll {}, retrying on the next sweep: {}", pollId, e.getMessage());
+            }
+        }
+        sweptUntil = until;
+    }
+
+    public void finalizePoll(Long pollId) {
+        voteCounterService.release(pollId);
+        resultsBroadcaster.release(pollId);
+        voterIndex.release(pollId);
+        voteTimeline.release(pollId);
+        pollService.freeze(pollId);
+        if (sseService.hasSubscribers(pollId) || pollSocketService.hasSessions(pollId)) {
+            pollService.findById(pollId).ifPresent(poll -> {
+                sseService.closePoll(pollId, pollService.finalResults(poll));
+                pollSocketService.closePoll(pollId, resultsBroadcaster.snapshot(poll));
+            });
+        } else {
+            sseService.release(pollId);
+        }
+        finalized.increment();
+        log.debug("Finalized expired poll {}", pollId);
+    }
+}
@@ -1,9 +1,12 @@
 package com.quickpoll.backend.service;
 
+import com.quickpoll.backend.cache.WeightedLruCache;
+import com.quickpoll.backend.dto.CreatePollRequest;
+import com.quickpoll.backend.dto.PollOptionRow;
 import com.quickpoll.backend.model.Poll;
 import com.quickpoll.backend.model.PollOption;
-import com.quickpoll.backend.repository.PollOptionRepository;
 import com.quickpoll.backend.repository.PollRepository;
+import com.quickpoll.backend.repository.VoteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,95 +19,165 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PollService {
 
+    // Matches the polls.question column length.
+    public static final int MAX_QUESTION_LENGTH = 120;
+    public static final int MAX_OPTIONS = 4;
+    public static final int MAX_OPTION_LENGTH = 255;
+    private static final HexFormat HEX = HexFormat.of();
+
     private final PollRepository pollRepository;
-    private final PollOptionRepository pollOptionRepository;
+    private final VoteRepository voteRepository;
     private final SseService sseService;
+    private final VoteCounterService voteCounterService;
+    private final PollEventBus pollEventBus;
+    private final WeightedLruCache<Long, PollSnapshot> pollSnapshotCache;
+    private final QrCodeService qrCodeService;
+    private final PollBatchWriter pollBatchWriter;
+    private final VoteArchive voteArchive;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public Poll createPoll(String question, String optionsDelimited, int expiryHours) {
+        Poll poll = newPoll(question, optionsDelimited, expiryHours, Instant.now());
+        pollBatchWriter.insert(List.of(poll));
+        pollSnapshotCache.put(poll.getId(), PollSnapshot.of(poll, voteCounterService.tally(poll)));
+        qrCodeService.pregenerate(poll.getId());
+        return poll;
+    }
+
+    public List<Poll> createPolls(List<CreatePollRequest> requests) {
+        Instant now = Instant.now();
+        List<Poll> polls = new ArrayList<>(requests.size());
+        for (CreatePollRequest request : requests) {
+            int expiry = request.getExpiryHours() > 0 ? request.getExpiryHours() : 24;
+            polls.add(newPoll(request.getQuestion(), request.getOptions(), expiry, now));
+        }
+        pollBatchWriter.insert(polls);
+        return polls;
+    }
+
+    private Poll newPoll(String question, String optionsDelimited, int expiryHours, Instant now) {
         Poll poll = new Poll();
         poll.setQuestion(question);
-        poll.setExpiresAt(Instant.now().plusSeconds(expiryHours * 3600L));
-        poll.setCreatedAt(Instant.now());
+        poll.setExpiresAt(now.plusSeconds(expiryHours * 3600L));
+        poll.setCreatedAt(now);
         poll.setResultsVisible(false);
         poll.setSecretKey(generateSecretKey());
 
-        Poll savedPoll = pollRepository.save(poll);
+        List<PollOption> optionEntities = parseOptions(optionsDelimited).stream()
+                .map(optText -> {
+                    PollOption option = new PollOption();
+                    option.setPoll(poll);
+                    option.setOptionText(optText);
+                    option.setVotes(0);
+                    return option;
+                })
+                .collect(Collectors.toList());
+        poll.setOptions(optionEntities);
+        return poll;
+    }
 
-        List<String> optionsList = Arrays.stream(optionsDelimited.split("[|,/]"))
+    public static List<String> parseOptions(String optionsDelimited) {
+        return Arrays.stream(optionsDelimited.split("[|,/]"))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
-                .limit(4)
-                .collect(Collectors.toList());
+                .limit(MAX_OPTIONS)
+                .toList();
+    }
 
-        List<PollOption> optionEntities = new ArrayList<>();
+    private String generateSecretKey() {
+        byte[] bytes = new byte[16];
+        secureRandom.nextBytes(bytes);
+        return HEX.formatHex(bytes);
+    }
+
+    public Optional<PollSnapshot> findById(Long pollId) {
+        return Optional.ofNullable(pollSnapshotCache.getOrLoad(pollId,
+                id -> toSnapshot(pollRepository.findRowsById(id, null))));
+    }
+
+    public Optional<PollSnapshot> findCached(Long pollId) {
+        return Optional.ofNullable(pollSnapshotCache.get(pollId));
+    }
 
-        for (String optText : optionsList) {
-            PollOption option = new PollOption();
-            option.setPoll(savedPoll);
-            option.setOptionText(optText);
-            option.setVotes(0);
-            optionEntities.add(option);
+    public Optional<PollView> findView(Long pollId, String voterToken) {
+        if (voterToken == null) {
+            return findById(pollId).map(poll -> new PollView(poll, null));
+        }
+        PollSnapshot cached = pollSnapshotCache.get(pollId);
+        if (cached != null) {
+            // The voter index only sees this node's votes, so a voter's own choice always comes from the table.
+            Long votedOptionId = voteRepository.findVotedOptionId(pollId, voterToken).orElse(null);
+            return Optional.of(new PollView(cached, archivedVoteIfMissing(cached, voterToken, votedOptionId)));
         }
 
-        pollOptionRepository.saveAll(optionEntities);
-        savedPoll.setOptions(optionEntities);
+        List<PollOptionRow> rows = pollRepository.findRowsById(pollId, voterToken);
+        return Optional.ofNullable(pollSnapshotCache.getOrLoad(pollId, id -> toSnapshot(rows)))
+                .map(poll -> new PollView(poll,
+                        archivedVoteIfMissing(poll, voterToken, rows.get(0).votedOptionId())));
+    }
 
-        return savedPoll;
+    private Long archivedVoteIfMissing(PollSnapshot poll, String voterToken, Long votedOptionId) {
+        if (votedOptionId != null || !poll.isClosed()) {
+            return votedOptionId;
+        }
+        return voteArchive.findVotedOptionId(poll.getId(), voterToken);
     }
 
-    private String generateSecretKey() {
-        byte[] bytes = new byte[16];
-        secureRandom.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+    private PollSnapshot toSnapshot(List<PollOptionRow> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<PollOptionRow> options = rows.stream().filter(row -> row.optionId() != null).toList();
+        long[] optionIds = new long[options.size()];
+        long[] persistedVotes = new long[options.size()];
+        for (int i = 0; i < options.size(); i++) {
+            optionIds[i] = options.get(i).optionId();
+            persistedVotes[i] = options.get(i).votes();
         }
-        return sb.toString();
+        Long pollId = rows.get(0).pollId();
+        PollTally live = voteCounterService.findTally(pollId);
+        if (live == null && !Instant.now().isBefore(rows.get(0).expiresAt())) {
+            PollTally released = voteCounterService.findReleased(pollId);
+            return PollSnapshot.of(rows,
+                    released != null ? released.freeze() : PollTally.of(pollId, optionIds, persistedVotes), true);
+        }
+        PollTally tally = live != null ? live : voteCounterService.tally(pollId, optionIds, persistedVotes);
+        return PollSnapshot.of(rows, tally, false);
     }
 
-    public Optional<Poll> findById(Long pollId) {
-        return pollRepository.findById(pollId);
+    public void freeze(Long pollId) {
+        pollSnapshotCache.update(pollId, PollSnapshot::freeze);
+    }
+
+    public Map<String, Object> finalResults(PollSnapshot poll) {
+        return ResultsBroadcaster.buildVoteData(poll.getId(), poll.getTally());
     }
 
     public Optional<Poll> findBySecretKey(String secretKey) {
         return pollRepository.findBySecretKey(secretKey);
     }
 
-    public boolean isExpired(Poll poll) {
-        return Instant.now().isAfter(poll.getExpiresAt());
+    public boolean isExpired(PollSnapshot poll) {
+        return poll.isClosed() || Instant.now().isAfter(poll.getExpiresAt());
     }
 
-    public Poll toggleResultsVisibility(Poll poll, boolean visible) {
-        poll.setResultsVisible(visible);
-        Poll savedPoll = pollRepository.save(poll);
-        sseService.broadcastResultsVisibilityChange(poll.getId(), visible);
-        return savedPoll;
+    public PollSnapshot toggleResultsVisibility(PollSnapshot poll, boolean visible) {
+        if (pollRepository.updateResultsVisible(poll.getId(), visible) > 0) {
+            applyResultsVisibility(poll.getId(), visible);
+            sseService.broadcastResultsVisibilityChange(poll.getId(), visible);
+            pollEventBus.publish(PollUpdate.visibility(poll.getId(), visible));
+        }
+        return poll.withResultsVisible(visible);
     }
 
-    public Optional<String> computeAutoInsight(Poll poll) {
-        List<PollOption> options = poll.getOptions();
-        int totalVotes = options.stream().mapToInt(PollOption::getVotes).sum();
-        if (totalVotes < 20) {
-            return Optional.empty();
-        }
-        options.sort(Comparator.comparingInt(PollOption::getVotes).reversed());
-
-        PollOption topOption = options.get(0);
-        double topPct = (topOption.getVotes() * 100.0) / totalVotes;
-        double margin;
-        String insight;
-
-        if (options.size() > 1) {
-            margin = ((topOption.getVotes() - options.get(1).getVotes()) * 100.0) / totalVotes;
-            if (margin <= 10.0) {
-                insight = "Results are close between top options.";
-            } else {
-                insight = String.format("%s leads with %.1f%% votes.", topOption.getOptionText(), topPct);
-            }
-        } else {
-            insight = String.format("%s leads with %.1f%% votes.", topOption.getOptionText(), topPct);
-        }
-        return Optional.of(insight);
+    public void applyResultsVisibility(Long pollId, boolean visible) {
+        pollSnapshotCache.update(pollId, snapshot -> snapshot.withResultsVisible(visible));
+    }
+
+    public Optional<String> computeAutoInsight(PollSnapshot poll) {
+        return Optional.ofNullable(poll.insight());
+    }
+
+    public record PollView(PollSnapshot poll, Long votedOptionId) {
     }
 }
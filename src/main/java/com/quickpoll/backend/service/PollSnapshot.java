@@ -0,0 +1,131 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.dto.PollOptionRow;
+import com.quickpoll.backend.model.Poll;
+import com.quickpoll.backend.model.PollOption;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+@Getter
+public class PollSnapshot {
+
+    private static final long BASE_WEIGHT = 256;
+    private static final long OPTION_WEIGHT = 64;
+
+    private final Long id;
+    private final String question;
+    private final Instant expiresAt;
+    private final boolean resultsVisible;
+    private final boolean closed;
+    private final String secretKey;
+    private final Instant createdAt;
+    private final List<OptionSnapshot> options;
+    private final PollTally tally;
+    private final AutoInsight autoInsight;
+
+    private PollSnapshot(Long id, String question, Instant expiresAt, boolean resultsVisible, boolean closed,
+            String secretKey, Instant createdAt, List<OptionSnapshot> options, PollTally tally,
+            AutoInsight autoInsight) {
+        this.id = id;
+        this.question = question;
+        this.expiresAt = expiresAt;
+        this.resultsVisible = resultsVisible;
+        this.closed = closed;
+        this.secretKey = secretKey;
+        this.createdAt = createdAt;
+        this.options = options;
+        this.tally = tally;
+        this.autoInsight = autoInsight;
+    }
+
+    public static PollSnapshot of(Poll poll, PollTally tally) {
+        List<OptionSnapshot> options = poll.getOptions().stream()
+                .sorted(Comparator.comparing(PollOption::getId))
+                .map(opt -> new OptionSnapshot(opt.getId(), opt.getOptionText()))
+                .toList();
+        return new PollSnapshot(poll.getId(), poll.getQuestion(), poll.getExpiresAt(),
+                Boolean.TRUE.equals(poll.getResultsVisible()), false, poll.getSecretKey(), poll.getCreatedAt(),
+                options, tally, new AutoInsight());
+    }
+
+    public static PollSnapshot of(List<PollOptionRow> rows, PollTally tally, boolean closed) {
+        PollOptionRow first = rows.get(0);
+        List<OptionSnapshot> options = rows.stream()
+                .filter(row -> row.optionId() != null)
+                .map(row -> new OptionSnapshot(row.optionId(), row.optionText()))
+                .toList();
+        return new PollSnapshot(first.pollId(), first.question(), first.expiresAt(),
+                Boolean.TRUE.equals(first.resultsVisible()), closed, first.secretKey(), first.createdAt(),
+                options, tally, new AutoInsight());
+    }
+
+    public PollSnapshot withResultsVisible(boolean visible) {
+        if (visible == resultsVisible) {
+            return this;
+        }
+        return new PollSnapshot(id, question, expiresAt, visible, closed, secretKey, createdAt, options, tally,
+                autoInsight);
+    }
+
+    public PollSnapshot freeze() {
+        if (closed) {
+            return this;
+        }
+        return new PollSnapshot(id, question, expiresAt, resultsVisible, true, secretKey, createdAt, options,
+                tally.freeze(), new AutoInsight());
+    }
+
+    /**
+     * Compares in constant time so response latency doesn't reveal how much of a guessed key was right.
+     */
+    public boolean hasSecretKey(String candidate) {
+        return candidate != null && MessageDigest.isEqual(secretKey.getBytes(StandardCharsets.UTF_8),
+                candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int votes(Long optionId) {
+        return tally.votes(optionId);
+    }
+
+    public int totalVotes() {
+        return tally.totalVotes();
+    }
+
+    /**
+     * Hashes exactly what a read renders from mutable state: each option's count and the two flags. Nodes
+     * showing the same results hand out the same tag, so no per-JVM epoch is needed behind a load balancer,
+     * and a node that lost unflushed votes can't reuse a tag for a different split of the same total.
+     */
+    public long version() {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < tally.size(); i++) {
+            h = (h ^ tally.votesAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ ((resultsVisible ? 2 : 0) | (closed ? 1 : 0))) * 0x100000001b3L;
+        return h;
+    }
+
+    public String etag() {
+        return "\"" + tally.totalVotes() + "-" + Long.toUnsignedString(version(), 36) + "\"";
+    }
+
+    public String insight() {
+        return autoInsight.current(tally, options);
+    }
+
+    public long weight() {
+        long weight = BASE_WEIGHT + question.length() * 2L + secretKey.length() * 2L;
+        for (OptionSnapshot option : options) {
+            weight += OPTION_WEIGHT + option.optionText().length() * 2L;
+        }
+        return weight;
+    }
+
+    public record OptionSnapshot(Long id, String optionText) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class PollSocketService {
+
+    static final byte SNAPSHOT = 1;
+    static final byte DELTA = 2;
+    static final byte CLOSED = 3;
+
+    // One single-threaded lane per poll keeps each poll's frames in version order; lanes only queue, never write.
+    private final ExecutorService[] fanOutLanes;
+    private final ExecutorService writerExecutor;
+    private final int sessionQueueCapacity;
+    private final long sendTimeLimitNanos;
+    private final Map<Long, Map<String, PollSocketSubscriber>> sessions = new ConcurrentHashMap<>();
+    private final Counter egress;
+
+    public PollSocketService(MeterRegistry meterRegistry,
+            @Value("${app.websocket.fan-out-threads:2}") int fanOutThreads,
+            @Value("${app.websocket.writer-threads:32}") int writerThreads,
+            @Value("${app.websocket.session-queue-capacity:64}") int sessionQueueCapacity,
+            @Value("${app.websocket.send-time-limit-ms:10000}") long sendTimeLimitMs) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ws-fan-out-");
+        this.fanOutLanes = new ExecutorService[Math.max(fanOutThreads, 1)];
+        for (int i = 0; i < fanOutLanes.length; i++) {
+            fanOutLanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        // Socket writes block until the client reads, so they never share threads with the ordering lanes.
+        this.writerExecutor = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("ws-writer-"));
+        this.sessionQueueCapacity = sessionQueueCapacity;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.egress = Counter.builder("quickpoll.websocket.egress")
+                .description("Result frame bytes written to WebSocket sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("quickpoll.websocket.sessions", sessions, PollSocketService::countSessions)
+                .description("Open WebSocket result sessions")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : fanOutLanes) {
+            lane.shutdown();
+        }
+        writerExecutor.shutdown();
+    }
+
+    public void register(Long pollId, WebSocketSession session, ResultsUpdate snapshot) {
+        PollSocketSubscriber subscriber = new PollSocketSubscriber(session, sessionQueueCapacity, writerExecutor,
+                sendTimeLimitNanos, egress);
+        if (subscriber.offer(encode(SNAPSHOT, snapshot))) {
+            sessions.computeIfAbsent(pollId, id -> new ConcurrentHashMap<>()).put(subscriber.id(), subscriber);
+        }
+    }
+
+    public void unregister(Long pollId, WebSocketSession session) {
+        sessions.computeIfPresent(pollId, (id, subscribers) -> {
+            PollSocketSubscriber removed = subscribers.remove(session.getId());
+            if (removed != null) {
+                removed.abandon();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void remove(Long pollId, PollSocketSubscriber subscriber) {
+        sessions.computeIfPresent(pollId, (id, subscribers) -> {
+            subscribers.remove(subscriber.id(), subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    public boolean hasSessions(Long pollId) {
+        return sessions.containsKey(pollId);
+    }
+
+    public void broadcast(ResultsUpdate update) {
+        Map<String, PollSocketSubscriber> subscribers = sessions.get(update.pollId());
+        if (subscribers == null) {
+            return;
+        }
+        // Sessions registered after this point already got a snapshot at or past this version.
+        List<PollSocketSubscriber> recipients = List.copyOf(subscribers.values());
+        byte[] frame = encode(DELTA, update);
+        lane(update.pollId()).execute(() -> {
+            for (PollSocketSubscriber subscriber : recipients) {
+                if (!subscriber.offer(frame)) {
+                    remove(update.pollId(), subscriber);
+                }
+            }
+        });
+    }
+
+    public void sendClosed(WebSocketSession session, ResultsUpdate finalResults) {
+        new PollSocketSubscriber(session, 1, writerExecutor, sendTimeLimitNanos, egress)
+                .finish(encode(CLOSED, finalResults));
+    }
+
+    public void closePoll(Long pollId, ResultsUpdate finalResults) {
+        Map<String, PollSocketSubscriber> subscribers = sessions.remove(pollId);
+        if (subscribers == null) {
+            return;
+        }
+        byte[] frame = encode(CLOSED, finalResults);
+        lane(pollId).execute(() -> subscribers.values().forEach(subscriber -> subscriber.finish(frame)));
+    }
+
+    private ExecutorService lane(Long pollId) {
+        return fanOutLanes[Math.floorMod(pollId.hashCode(), fanOutLanes.length)];
+    }
+
+    static byte[] encode(byte type, ResultsUpdate update) {
+        byte[] buffer = new byte[1 + 10 + 5 + update.size() * (type == DELTA ? 10 : 15)];
+        int position = 0;
+        buffer[position++] = type;
+        position = writeVarLong(buffer, position, update.version());
+        position = writeVarLong(buffer, position, update.size());
+        long previousOptionId = 0;
+        for (int i = 0; i < update.size(); i++) {
+            if (type == DELTA) {
+                position = writeVarLong(buffer, position, update.indexes()[i]);
+            } else {
+                long optionId = update.optionIds()[update.indexes()[i]];
+                position = writeVarLong(buffer, position, optionId - previousOptionId);
+                previousOptionId = optionId;
+            }
+            position = writeVarLong(buffer, position, update.votes()[i]);
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static double countSessions(Map<Long, Map<String, PollSocketSubscriber>> sessions) {
+        long count = 0;
+        for (Map<String, PollSocketSubscriber> subscribers : sessions.values()) {
+            count += subscribers.size();
+        }
+        return count;
+    }
+}
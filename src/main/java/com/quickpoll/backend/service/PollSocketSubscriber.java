@@ -0,0 +1,134 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+class PollSocketSubscriber {
+
+    private final WebSocketSession session;
+    private final BlockingQueue<byte[]> outbound;
+    private final Executor executor;
+    private final long sendTimeLimitNanos;
+    private final Counter egress;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean finishing;
+    private volatile long sendStartedAt;
+
+    PollSocketSubscriber(WebSocketSession session, int queueCapacity, Executor executor, long sendTimeLimitNanos,
+            Counter egress) {
+        this.session = session;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = executor;
+        this.sendTimeLimitNanos = sendTimeLimitNanos;
+        this.egress = egress;
+    }
+
+    String id() {
+        return session.getId();
+    }
+
+    boolean isClosed() {
+        return closed || finishing;
+    }
+
+    /**
+     * Queues a frame for the writer pool and never touches the socket. A client that stalls a write past the
+     * send time limit, or falls a full queue behind, is closed so it can reconnect for a fresh snapshot.
+     */
+    synchronized boolean offer(byte[] frame) {
+        if (closed) {
+            return false;
+        }
+        if (finishing) {
+            return true;
+        }
+        long started = sendStartedAt;
+        if (started != 0 && System.nanoTime() - started > sendTimeLimitNanos) {
+            log.debug("Closing stalled WebSocket session {}", session.getId());
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+        if (!outbound.offer(frame)) {
+            log.debug("Closing WebSocket session {} that fell {} frames behind", session.getId(),
+                    outbound.size());
+            close(CloseStatus.SERVICE_OVERLOAD);
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    synchronized void finish(byte[] frame) {
+        if (closed || finishing) {
+            return;
+        }
+        if (!outbound.offer(frame)) {
+            outbound.clear();
+            outbound.offer(frame);
+        }
+        finishing = true;
+        scheduleDrain();
+    }
+
+    void abandon() {
+        closed = true;
+        outbound.clear();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        byte[] frame;
+        while (!closed && (frame = outbound.poll()) != null) {
+            try {
+                sendStartedAt = System.nanoTime();
+                session.sendMessage(new BinaryMessage(frame));
+                egress.increment(frame.length);
+            } catch (Exception e) {
+                log.debug("Dropping WebSocket session {}: {}", session.getId(), e.getMessage());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+        draining.set(false);
+        if (closed) {
+            return;
+        }
+        if (!outbound.isEmpty()) {
+            scheduleDrain();
+        } else if (finishing && draining.compareAndSet(false, true)) {
+            // Holding the drain flag means no other writer is mid-send with the closing frame.
+            if (outbound.isEmpty()) {
+                close(CloseStatus.NORMAL);
+            } else {
+                draining.set(false);
+                scheduleDrain();
+            }
+        }
+    }
+
+    private void close(CloseStatus status) {
+        abandon();
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Error closing WebSocket session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
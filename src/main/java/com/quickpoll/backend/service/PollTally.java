@@ -0,0 +1,217 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.model.PollOption;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PollTally {
+
+    private final Long pollId;
+    private final long[] optionIds;
+    // Replaced wholesale by resync, so readers always see one consistent base.
+    private volatile long[] persistedVotes;
+    private final LongAdder[] localVotes;
+    private final LongAdder[] remoteVotes;
+    private final long[] flushed;
+    private volatile long persistedTotal;
+    private final LongAdder total = new LongAdder();
+    private volatile int leader = -1;
+    private volatile int runnerUp = -1;
+    private volatile boolean released;
+    private final Map<String, InFlightReport> remoteInFlight = new ConcurrentHashMap<>();
+
+    private PollTally(Long pollId, long[] optionIds, long[] persistedVotes) {
+        this.pollId = pollId;
+        this.optionIds = optionIds;
+        this.persistedVotes = persistedVotes;
+        this.localVotes = new LongAdder[optionIds.length];
+        this.remoteVotes = new LongAdder[optionIds.length];
+        this.flushed = new long[optionIds.length];
+        long sum = 0;
+        for (int i = 0; i < optionIds.length; i++) {
+            localVotes[i] = new LongAdder();
+            remoteVotes[i] = new LongAdder();
+            sum += persistedVotes[i];
+        }
+        this.persistedTotal = sum;
+        rerank();
+    }
+
+    public static PollTally of(Long pollId, List<PollOption> options) {
+        List<PollOption> sorted = options.stream()
+                .sorted(Comparator.comparing(PollOption::getId))
+                .toList();
+        long[] optionIds = new long[sorted.size()];
+        long[] persistedVotes = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            optionIds[i] = sorted.get(i).getId();
+            persistedVotes[i] = sorted.get(i).getVotes();
+        }
+        return new PollTally(pollId, optionIds, persistedVotes);
+    }
+
+    public static PollTally of(Long pollId, long[] optionIds, long[] persistedVotes) {
+        return new PollTally(pollId, optionIds.clone(), persistedVotes.clone());
+    }
+
+    public PollTally freeze() {
+        long[] votes = new long[optionIds.length];
+        for (int i = 0; i < optionIds.length; i++) {
+            votes[i] = votesAt(i);
+        }
+        return new PollTally(pollId, optionIds, votes);
+    }
+
+    public Long getPollId() {
+        return pollId;
+    }
+
+    public int size() {
+        return optionIds.length;
+    }
+
+    public long optionId(int index) {
+        return optionIds[index];
+    }
+
+    public int indexOf(Long optionId) {
+        if (optionId == null) {
+            return -1;
+        }
+        for (int i = 0; i < optionIds.length; i++) {
+            if (optionIds[i] == optionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void increment(int index) {
+        localVotes[index].increment();
+        total.increment();
+        rank(index);
+    }
+
+    public void addRemote(int index, long delta) {
+        remoteVotes[index].add(delta);
+        total.add(delta);
+        rerank();
+    }
+
+    public int leader() {
+        return leader;
+    }
+
+    public int runnerUp() {
+        return runnerUp;
+    }
+
+    public int votesAt(int index) {
+        return (int) (persistedVotes[index] + localVotes[index].sum() + remoteVotes[index].sum());
+    }
+
+    public int votes(Long optionId) {
+        int index = indexOf(optionId);
+        return index < 0 ? 0 : votesAt(index);
+    }
+
+    public int totalVotes() {
+        return (int) (persistedTotal + total.sum());
+    }
+
+    private void rank(int index) {
+        int top = leader;
+        if (index == top) {
+            return;
+        }
+        int votes = votesAt(index);
+        int second = runnerUp;
+        if (index == second ? votes <= votesAt(top) : votes <= votesAt(second)) {
+            return;
+        }
+        rerank();
+    }
+
+    private synchronized void rerank() {
+        int top = -1;
+        int second = -1;
+        for (int i = 0; i < optionIds.length; i++) {
+            int votes = votesAt(i);
+            if (top < 0 || votes > votesAt(top)) {
+                second = top;
+                top = i;
+            } else if (second < 0 || votes > votesAt(second)) {
+                second = i;
+            }
+        }
+        leader = top;
+        runnerUp = second;
+    }
+
+    void release() {
+        released = true;
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+
+    void reportRemoteInFlight(String node, long[] unflushed, long reportedAt) {
+        if (unflushed.length == optionIds.length) {
+            remoteInFlight.put(node, new InFlightReport(unflushed, reportedAt));
+        }
+    }
+
+    long[] unflushed() {
+        long[] unflushed = new long[optionIds.length];
+        for (int i = 0; i < optionIds.length; i++) {
+            unflushed[i] = pendingDelta(i, localCount(i));
+        }
+        return unflushed;
+    }
+
+    /**
+     * Rebases the tally so it reads as the stored counts plus every node's unflushed votes: this node's
+     * exactly, other nodes' as last reported. Must not run concurrently with a flush of this tally.
+     */
+    synchronized boolean resync(long[] stored, long staleBefore) {
+        remoteInFlight.values().removeIf(report -> report.reportedAt() < staleBefore);
+        long[] base = new long[optionIds.length];
+        long sum = 0;
+        boolean changed = false;
+        for (int i = 0; i < optionIds.length; i++) {
+            long inFlight = 0;
+            for (InFlightReport report : remoteInFlight.values()) {
+                inFlight += report.unflushed()[i];
+            }
+            base[i] = stored[i] - flushed[i] + inFlight - remoteVotes[i].sum();
+            changed |= base[i] != persistedVotes[i];
+            sum += base[i];
+        }
+        if (changed) {
+            persistedVotes = base;
+            persistedTotal = sum;
+            rerank();
+        }
+        return changed;
+    }
+
+    long pendingDelta(int index, long current) {
+        return current - flushed[index];
+    }
+
+    long localCount(int index) {
+        return localVotes[index].sum();
+    }
+
+    void markFlushed(int index, long current) {
+        flushed[index] = current;
+    }
+
+    private record InFlightReport(long[] unflushed, long reportedAt) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.quickpoll.backend.service;
+
+import java.util.Map;
+
+/**
+ * A change relayed between nodes. {@code inFlight} is the sender's absolute count of votes it has not flushed
+ * yet, per option; {@code node} is stamped by the bus on receipt.
+ */
+public record PollUpdate(Long pollId, Map<Long, Long> voteDeltas, Boolean resultsVisible, Map<Long, Long> inFlight,
+        String node) {
+
+    public static PollUpdate vote(Long pollId, Long optionId) {
+        return new PollUpdate(pollId, Map.of(optionId, 1L), null, null, null);
+    }
+
+    public static PollUpdate visibility(Long pollId, boolean resultsVisible) {
+        return new PollUpdate(pollId, Map.of(), resultsVisible, null, null);
+    }
+
+    public static PollUpdate inFlight(Long pollId, Map<Long, Long> unflushed) {
+        return new PollUpdate(pollId, Map.of(), null, unflushed, null);
+    }
+
+    public PollUpdate fromNode(String node) {
+        return new PollUpdate(pollId, voteDeltas, resultsVisible, inFlight, node);
+    }
+}
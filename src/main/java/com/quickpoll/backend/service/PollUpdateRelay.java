@@ -0,0 +1,134 @@
+package com.quickpoll.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PollUpdateRelay {
+
+    private final PollEventBus pollEventBus;
+    private final VoteCounterService voteCounterService;
+    private final ResultsBroadcaster resultsBroadcaster;
+    private final SseService sseService;
+    private final PollService pollService;
+    private final VoteTimeline voteTimeline;
+    private final Set<Long> reportedInFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.event-bus.type:local}")
+    private String eventBusType;
+
+    @Value("${app.event-bus.resync-ms:5000}")
+    private long resyncMs;
+
+    @PostConstruct
+    public void subscribe() {
+        pollEventBus.subscribe(this::apply);
+    }
+
+    private void apply(List<PollUpdate> updates) {
+        for (PollUpdate update : updates) {
+            if (!update.voteDeltas().isEmpty()) {
+                applyVotes(update);
+            }
+            if (update.inFlight() != null && update.node() != null) {
+                applyInFlight(update);
+            }
+            if (update.resultsVisible() != null) {
+                pollService.applyResultsVisibility(update.pollId(), update.resultsVisible());
+                sseService.broadcastResultsVisibilityChange(update.pollId(), update.resultsVisible());
+            }
+        }
+    }
+
+    private void applyVotes(PollUpdate update) {
+        long votes = update.voteDeltas().values().stream().mapToLong(Long::longValue).sum();
+        voteTimeline.record(update.pollId(), Math.toIntExact(votes));
+        // Without a tally this node loads the stored counts later; resync adds whatever is still in flight then.
+        PollTally tally = voteCounterService.findTally(update.pollId());
+        if (tally == null) {
+            return;
+        }
+        update.voteDeltas().forEach((optionId, delta) -> {
+            int index = tally.indexOf(optionId);
+            if (index >= 0) {
+                tally.addRemote(index, delta);
+            }
+        });
+        markDirty(update.pollId());
+    }
+
+    private void applyInFlight(PollUpdate update) {
+        PollTally tally = voteCounterService.findTally(update.pollId());
+        if (tally == null) {
+            return;
+        }
+        long[] unflushed = new long[tally.size()];
+        update.inFlight().forEach((optionId, count) -> {
+            int index = tally.indexOf(optionId);
+            if (index >= 0) {
+                unflushed[index] = count;
+            }
+        });
+        tally.reportRemoteInFlight(update.node(), unflushed, System.currentTimeMillis());
+    }
+
+    /**
+     * Converges node counts: each node reports its unflushed votes, then rebases its live tallies on the stored
+     * counts plus everyone's reported in-flight votes. A single node has no peers to drift from.
+     */
+    @Scheduled(fixedDelayString = "${app.event-bus.resync-ms:5000}",
+            initialDelayString = "${app.event-bus.resync-ms:5000}")
+    public void resync() {
+        if ("local".equals(eventBusType)) {
+            return;
+        }
+        Set<Long> live = new HashSet<>();
+        for (PollTally tally : voteCounterService.liveTallies()) {
+            live.add(tally.getPollId());
+            long[] unflushed = tally.unflushed();
+            Map<Long, Long> inFlight = new HashMap<>();
+            for (int i = 0; i < unflushed.length; i++) {
+                if (unflushed[i] != 0) {
+                    inFlight.put(tally.optionId(i), unflushed[i]);
+                }
+            }
+            // An empty report is only worth sending once, to retract the previous non-empty one.
+            if (inFlight.isEmpty()) {
+                if (!reportedInFlight.remove(tally.getPollId())) {
+                    continue;
+                }
+            } else {
+                reportedInFlight.add(tally.getPollId());
+            }
+            pollEventBus.publish(PollUpdate.inFlight(tally.getPollId(), inFlight));
+        }
+        reportedInFlight.retainAll(live);
+
+        try {
+            voteCounterService.resync(System.currentTimeMillis() - 3 * resyncMs).forEach(this::markDirty);
+        } catch (DataAccessException e) {
+            log.error("Error resyncing vote tallies: {}", e.getMessage());
+        }
+    }
+
+    private void markDirty(Long pollId) {
+        if (!resultsBroadcaster.markDirty(pollId) && sseService.hasSubscribers(pollId)) {
+            pollService.findById(pollId)
+                    .ifPresent(resultsBroadcaster::markDirty);
+        }
+    }
+}
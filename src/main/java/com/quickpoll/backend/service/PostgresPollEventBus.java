@@ -0,0 +1,232 @@
+package com.quickpoll.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Service
+@ConditionalOnProperty(name = "app.event-bus.type", havingValue = "postgres")
+@Slf4j
+public class PostgresPollEventBus implements PollEventBus {
+
+    private static final String CHANNEL = "quickpoll_poll_updates";
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long batchMs;
+    private final List<Consumer<List<PollUpdate>>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("poll-bus-publisher-"));
+    private Map<Long, PendingUpdate> pending = new LinkedHashMap<>();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresPollEventBus(DataSourceProperties dataSourceProperties, JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper, @Value("${app.event-bus.batch-ms:10}") long batchMs) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchMs = batchMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "poll-bus-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        publisher.scheduleWithFixedDelay(this::flush, batchMs, batchMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        publisher.shutdown();
+        publisher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+        running = false;
+        listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void publish(PollUpdate update) {
+        synchronized (this) {
+            pending.computeIfAbsent(update.pollId(), PendingUpdate::new).merge(update);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<PollUpdate>> listener) {
+        listeners.add(listener);
+    }
+
+    private void flush() {
+        Map<Long, PendingUpdate> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        List<PendingUpdate> updates = new ArrayList<>(batch.values());
+        // Updates before this index went out in a NOTIFY that succeeded; the rest must not be lost.
+        int sent = 0;
+        try {
+            String prefix = "{\"node\":\"" + nodeId + "\",\"updates\":[";
+            StringBuilder payload = new StringBuilder(prefix);
+            int count = 0;
+            for (int i = 0; i < updates.size(); i++) {
+                String json = objectMapper.writeValueAsString(updates.get(i).toPollUpdate());
+                if (count > 0 && payload.length() + json.length() + 3 > MAX_PAYLOAD_LENGTH) {
+                    notify(payload.append("]}").toString());
+                    sent = i;
+                    payload.setLength(prefix.length());
+                    count = 0;
+                }
+                payload.append(count > 0 ? "," : "").append(json);
+                count++;
+            }
+            notify(payload.append("]}").toString());
+        } catch (Exception e) {
+            log.error("Error publishing {} poll updates, retrying on the next flush: {}",
+                    updates.size() - sent, e.getMessage());
+            requeue(updates.subList(sent, updates.size()));
+        }
+    }
+
+    private void requeue(List<PendingUpdate> failed) {
+        Map<Long, PendingUpdate> merged = new LinkedHashMap<>();
+        for (PendingUpdate update : failed) {
+            merged.put(update.pollId, update);
+        }
+        synchronized (this) {
+            pending.forEach((pollId, newer) -> merged.merge(pollId, newer, (older, update) -> update.absorb(older)));
+            pending = merged;
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> {
+        }, CHANNEL, payload);
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                log.error("Poll update listener connection failed: {}", e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            Envelope envelope = objectMapper.readValue(payload, Envelope.class);
+            if (nodeId.equals(envelope.node())) {
+                return;
+            }
+            for (Consumer<List<PollUpdate>> listener : listeners) {
+                listener.accept(envelope.updates().stream()
+                        .map(update -> update.fromNode(envelope.node()))
+                        .toList());
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Ignoring malformed poll update payload: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Error applying poll updates: {}", e.getMessage());
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Envelope(String node, List<PollUpdate> updates) {
+    }
+
+    private static class PendingUpdate {
+        final Long pollId;
+        final Map<Long, Long> voteDeltas = new HashMap<>();
+        Boolean resultsVisible;
+        Map<Long, Long> inFlight;
+
+        PendingUpdate(Long pollId) {
+            this.pollId = pollId;
+        }
+
+        void merge(PollUpdate update) {
+            update.voteDeltas().forEach((optionId, delta) -> voteDeltas.merge(optionId, delta, Long::sum));
+            if (update.resultsVisible() != null) {
+                resultsVisible = update.resultsVisible();
+            }
+            if (update.inFlight() != null) {
+                inFlight = update.inFlight();
+            }
+        }
+
+        PendingUpdate absorb(PendingUpdate older) {
+            older.voteDeltas.forEach((optionId, delta) -> voteDeltas.merge(optionId, delta, Long::sum));
+            if (resultsVisible == null) {
+                resultsVisible = older.resultsVisible;
+            }
+            if (inFlight == null) {
+                inFlight = older.inFlight;
+            }
+            return this;
+        }
+
+        PollUpdate toPollUpdate() {
+            return new PollUpdate(pollId, voteDeltas, resultsVisible, inFlight, null);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.quickpoll.backend.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.quickpoll.backend.cache.WeightedLruCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+@Service
+@Slf4j
+public class QrCodeService {
+
+    public static final int DEFAULT_SIZE = 400;
+
+    private final WeightedLruCache<String, QrImage> qrCodeCache;
+    private final String frontendUrl;
+    private final List<Integer> allowedSizes;
+    private final Timer renderTimer;
+    private final ExecutorService pregenerateExecutor = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("qr-pregenerate-"));
+
+    public QrCodeService(WeightedLruCache<String, QrImage> qrCodeCache, MeterRegistry meterRegistry,
+            @Value("${app.frontend-url}") String frontendUrl,
+            @Value("${app.qr.sizes:200,400,800}") List<Integer> allowedSizes) {
+        this.qrCodeCache = qrCodeCache;
+        this.frontendUrl = frontendUrl;
+        this.allowedSizes = allowedSizes;
+        this.renderTimer = Timer.builder("quickpoll.qr.render")
+                .description("Time to render a QR code PNG")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pregenerateExecutor.shutdown();
+    }
+
+    public boolean isAllowedSize(int size) {
+        return allowedSizes.contains(size);
+    }
+
+    public QrImage getQrCode(Long pollId, int size) {
+        return qrCodeCache.getOrLoad(pollId + ":" + size, key -> renderTimer.record(() -> render(pollId, size)));
+    }
+
+    public void pregenerate(Long pollId) {
+        pregenerateExecutor.execute(() -> {
+            try {
+                getQrCode(pollId, DEFAULT_SIZE);
+            } catch (Exception e) {
+                log.error("Error pre-generating QR code for poll {}: {}", pollId, e.getMessage());
+            }
+        });
+    }
+
+    private QrImage render(Long pollId, int size) {
+        String shareUrl = frontendUrl + "/poll/" + pollId;
+        try {
+            BitMatrix bitMatrix = new QRCodeWriter().encode(shareUrl, BarcodeFormat.QR_CODE, size, size);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+            byte[] png = outputStream.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(png);
+            String etag = "\"qr-" + pollId + "-" + size + "-" + Long.toHexString(crc.getValue()) + "\"";
+            return new QrImage(png, etag);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Could not encode QR code", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record QrImage(byte[] png, String etag) {
+
+        public long weight() {
+            return png.length + etag.length() * 2L + 64;
+        }
+    }
+}
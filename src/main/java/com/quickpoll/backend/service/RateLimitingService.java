@@ -1,52 +1,227 @@
 package com.quickpoll.backend.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
-public class RateLimitingService {
+public class RateLimitingService implements MeterBinder {
 
-    private final ConcurrentMap<String, VoteAttempt> voteAttempts = new ConcurrentHashMap<>();
-    private static final int MAX_ATTEMPTS = 5;
-    private static final long RATE_WINDOW_SECONDS = 3600;
+    private static final int PROBE_WINDOW = 8;
+    private static final int TAG_SHIFT = 36;
+    private static final int BUCKET_SHIFT = 16;
+    private static final long BUCKET_MASK = (1L << 20) - 1;
+    private static final int PREVIOUS_SHIFT = 8;
+    private static final int COUNT_MASK = 0xff;
+    private static final int SWEEP_BATCH = 1 << 16;
 
-    public boolean isRateLimited(String deviceFingerprint, Long pollId) {
-        String key = deviceFingerprint + ":" + pollId;
-        VoteAttempt attempt = voteAttempts.get(key);
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final int mask;
+    private final AtomicLongArray slots;
+    private final AtomicInteger sweepCursor = new AtomicInteger();
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder overflowEvictions = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+    private final LongAdder occupied = new LongAdder();
 
-        Instant now = Instant.now();
+    public RateLimitingService(@Value("${app.rate-limit.max-attempts:5}") int maxAttempts,
+            @Value("${app.rate-limit.window-seconds:3600}") long windowSeconds,
+            @Value("${app.rate-limit.capacity:1048576}") int capacity) {
+        this.maxAttempts = Math.min(maxAttempts, COUNT_MASK);
+        this.windowMillis = windowSeconds * 1000;
+        int size = Integer.highestOneBit(Math.max(capacity, PROBE_WINDOW * 2) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicLongArray(size);
+    }
 
-        if (attempt == null) {
-            voteAttempts.put(key, new VoteAttempt(now, 1));
-            return false;
+    public boolean isRateLimited(long deviceKey, long pollId) {
+        if (isRateLimited(deviceKey, pollId, System.currentTimeMillis())) {
+            log.warn("Rate limit exceeded for device {} on poll {}", DeviceFingerprintService.toHex(deviceKey), pollId);
+            return true;
         }
+        return false;
+    }
 
-        if (now.isAfter(attempt.firstAttempt.plusSeconds(RATE_WINDOW_SECONDS))) {
-            voteAttempts.put(key, new VoteAttempt(now, 1));
-            return false;
+    boolean isRateLimited(long deviceKey, long pollId, long nowMillis) {
+        checks.increment();
+        long hash = mix(deviceKey * 0x9E3779B97F4A7C15L ^ pollId);
+        long tag = hash >>> TAG_SHIFT;
+        int home = (int) hash & mask;
+        int alternate = (int) mix(tag) & mask;
+        long bucket = nowMillis / windowMillis;
+        double elapsed = (double) (nowMillis % windowMillis) / windowMillis;
+
+        while (true) {
+            int homeFree = 0;
+            int homeSlot = -1;
+            long homeWord = 0;
+            int alternateFree = 0;
+            int alternateSlot = -1;
+            long alternateWord = 0;
+            int victim = -1;
+            long victimWord = 0;
+            double victimEstimate = Double.MAX_VALUE;
+            boolean retry = false;
+
+            for (int i = 0; i < PROBE_WINDOW * 2 && !retry; i++) {
+                boolean inHome = i < PROBE_WINDOW;
+                int index = ((inHome ? home : home ^ alternate) + i % PROBE_WINDOW) & mask;
+                long word = slots.get(index);
+                if (word != 0 && (word >>> TAG_SHIFT) == tag) {
+                    long age = age(word, bucket);
+                    int previous = age == 0 ? previous(word) : age == 1 ? current(word) : 0;
+                    int current = age == 0 ? current(word) : 0;
+                    if (previous * (1 - elapsed) + current >= maxAttempts) {
+                        limited.increment();
+                        return true;
+                    }
+                    if (slots.compareAndSet(index, word, pack(tag, bucket, previous, current + 1))) {
+                        return false;
+                    }
+                    retry = true;
+                } else if (word == 0 || age(word, bucket) > 1) {
+                    if (inHome && homeFree++ == 0) {
+                        homeSlot = index;
+                        homeWord = word;
+                    } else if (!inHome && alternateFree++ == 0) {
+                        alternateSlot = index;
+                        alternateWord = word;
+                    }
+                } else {
+                    double estimate = estimate(word, bucket, elapsed);
+                    if (estimate < victimEstimate) {
+                        victim = index;
+                        victimWord = word;
+                        victimEstimate = estimate;
+                    }
+                }
+            }
+            if (retry) {
+                continue;
+            }
+
+            long claimed = pack(tag, bucket, 0, 1);
+            boolean useHome = homeFree >= alternateFree;
+            int slot = useHome ? homeSlot : alternateSlot;
+            if (slot >= 0) {
+                long freeWord = useHome ? homeWord : alternateWord;
+                if (slots.compareAndSet(slot, freeWord, claimed)) {
+                    if (freeWord == 0) {
+                        occupied.increment();
+                    }
+                    return false;
+                }
+            } else if (slots.compareAndSet(victim, victimWord, claimed)) {
+                overflowEvictions.increment();
+                return false;
+            }
         }
+    }
 
-        if (attempt.attempts >= MAX_ATTEMPTS) {
-            log.warn("Rate limit exceeded for device {} on poll {}", deviceFingerprint, pollId);
-            return true;
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:1000}")
+    public void sweep() {
+        long bucket = System.currentTimeMillis() / windowMillis;
+        int start = sweepCursor.getAndUpdate(cursor -> (cursor + SWEEP_BATCH) & mask);
+        int end = Math.min(start + SWEEP_BATCH, mask + 1);
+        int removed = 0;
+        for (int index = start; index < end; index++) {
+            long word = slots.get(index);
+            if (word != 0 && age(word, bucket) > 1 && slots.compareAndSet(index, word, 0)) {
+                removed++;
+            }
         }
+        swept.add(removed);
+        occupied.add(-removed);
+    }
 
-        attempt.attempts++;
-        return false;
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quickpoll.ratelimit.entries", this, RateLimitingService::getEntryCount)
+                .description("Occupied rate-limit slots, including expired windows not yet swept")
+                .register(registry);
+        Gauge.builder("quickpoll.ratelimit.capacity", this, RateLimitingService::getCapacity)
+                .description("Hard cap on rate-limit windows")
+                .register(registry);
+        FunctionCounter.builder("quickpoll.ratelimit.checks", this, RateLimitingService::getCheckCount)
+                .register(registry);
+        FunctionCounter.builder("quickpoll.ratelimit.limited", this, RateLimitingService::getLimitedCount)
+                .register(registry);
+        FunctionCounter.builder("quickpoll.ratelimit.overflow.evictions", this,
+                        RateLimitingService::getOverflowEvictionCount)
+                .register(registry);
+        FunctionCounter.builder("quickpoll.ratelimit.swept", this, RateLimitingService::getSweptCount)
+                .register(registry);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public int getEntryCount() {
+        return (int) occupied.sum();
+    }
+
+    public long getCheckCount() {
+        return checks.sum();
+    }
+
+    public long getLimitedCount() {
+        return limited.sum();
+    }
+
+    public long getOverflowEvictionCount() {
+        return overflowEvictions.sum();
     }
 
-    private static class VoteAttempt {
-        Instant firstAttempt;
-        int attempts;
+    public long getSweptCount() {
+        return swept.sum();
+    }
 
-        VoteAttempt(Instant firstAttempt, int attempts) {
-            this.firstAttempt = firstAttempt;
-            this.attempts = attempts;
+    private double estimate(long word, long bucket, double elapsed) {
+        long age = age(word, bucket);
+        if (age == 0) {
+            return previous(word) * (1 - elapsed) + current(word);
         }
+        return age == 1 ? current(word) * (1 - elapsed) : 0;
+    }
+
+    private static long age(long word, long bucket) {
+        return (bucket - (word >>> BUCKET_SHIFT)) & BUCKET_MASK;
+    }
+
+    private static int previous(long word) {
+        return (int) (word >>> PREVIOUS_SHIFT) & COUNT_MASK;
+    }
+
+    private static int current(long word) {
+        return (int) word & COUNT_MASK;
+    }
+
+    private static long pack(long tag, long bucket, int previous, int current) {
+        return tag << TAG_SHIFT
+                | (bucket & BUCKET_MASK) << BUCKET_SHIFT
+                | (long) Math.min(previous, COUNT_MASK) << PREVIOUS_SHIFT
+                | Math.min(current, COUNT_MASK);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e53e6a5c5L;
+        h ^= h >>> 33;
+        return h;
     }
 }
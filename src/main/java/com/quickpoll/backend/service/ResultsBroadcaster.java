@@ -0,0 +1,212 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class ResultsBroadcaster {
+
+    private final SseService sseService;
+    private final PollSocketService pollSocketService;
+    private final VoteTimeline voteTimeline;
+    private final int timelinePushSeconds;
+    private final long minIntervalNanos;
+    private final Map<Long, PollBroadcastState> states = new ConcurrentHashMap<>();
+    private final Counter publishedUpdates;
+    private final Counter mergedUpdates;
+
+    public ResultsBroadcaster(SseService sseService, PollSocketService pollSocketService, VoteTimeline voteTimeline,
+            MeterRegistry meterRegistry,
+            @Value("${app.broadcast.max-updates-per-second:4}") int maxUpdatesPerSecond,
+            @Value("${app.votes.timeline.push-seconds:10}") int timelinePushSeconds) {
+        this.sseService = sseService;
+        this.pollSocketService = pollSocketService;
+        this.voteTimeline = voteTimeline;
+        this.timelinePushSeconds = Math.max(timelinePushSeconds, 1);
+        this.minIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxUpdatesPerSecond);
+        this.publishedUpdates = Counter.builder("quickpoll.broadcast.updates")
+                .description("Result updates by outcome")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.mergedUpdates = Counter.builder("quickpoll.broadcast.updates")
+                .description("Result updates by outcome")
+                .tag("outcome", "merged")
+                .register(meterRegistry);
+    }
+
+    public void markDirty(PollSnapshot poll) {
+        if (poll.isClosed()) {
+            return;
+        }
+        markDirty(states.computeIfAbsent(poll.getId(), id -> new PollBroadcastState(poll)));
+    }
+
+    public boolean markDirty(Long pollId) {
+        PollBroadcastState state = states.get(pollId);
+        if (state == null) {
+            return false;
+        }
+        markDirty(state);
+        return true;
+    }
+
+    private void markDirty(PollBroadcastState state) {
+        if (!state.dirty.compareAndSet(false, true)) {
+            mergedUpdates.increment();
+        }
+    }
+
+    public ResultsUpdate snapshot(PollSnapshot poll) {
+        if (poll.isClosed()) {
+            return update(poll.getId(), 0, poll.getTally(), null);
+        }
+        return states.computeIfAbsent(poll.getId(), id -> new PollBroadcastState(poll)).snapshot();
+    }
+
+    public void withSnapshot(PollSnapshot poll, Consumer<ResultsUpdate> subscriber) {
+        PollBroadcastState state = states.computeIfAbsent(poll.getId(), id -> new PollBroadcastState(poll));
+        synchronized (state) {
+            subscriber.accept(state.snapshot());
+        }
+    }
+
+    public void release(Long pollId) {
+        states.remove(pollId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.broadcast.tick-ms:50}")
+    public void publishDirty() {
+        long now = System.nanoTime();
+        for (PollBroadcastState state : states.values()) {
+            if (state.dirty.get() && now - state.lastPublishedAt >= minIntervalNanos
+                    && state.dirty.compareAndSet(true, false)) {
+                state.lastPublishedAt = now;
+                publish(state);
+            }
+        }
+    }
+
+    private void publish(PollBroadcastState state) {
+        try {
+            PollSnapshot poll = state.poll;
+            ResultsUpdate delta;
+            // Same lock as withSnapshot, so a socket registered at version V only ever gets deltas past V.
+            synchronized (state) {
+                delta = state.delta();
+                if (delta != null) {
+                    pollSocketService.broadcast(delta);
+                }
+            }
+            if (delta != null) {
+                sseService.broadcastVoteUpdate(poll.getId(), delta.toMap());
+            }
+            String insight = poll.insight();
+            if (insight != null && !insight.equals(state.lastInsight)) {
+                state.lastInsight = insight;
+                sseService.broadcastAutoInsight(poll.getId(), insight);
+            }
+            if (sseService.hasTimelineSubscribers(poll.getId())) {
+                sseService.broadcastTimeline(poll.getId(), voteTimeline.recent(poll.getId(), timelinePushSeconds));
+            }
+            publishedUpdates.increment();
+        } catch (Exception e) {
+            log.error("Error publishing results for poll {}: {}", state.poll.getId(), e.getMessage());
+        }
+    }
+
+    static Map<String, Object> buildVoteData(Long pollId, PollTally tally) {
+        int totalVotes = tally.totalVotes();
+
+        Map<String, Object> options = new HashMap<>();
+        for (int i = 0; i < tally.size(); i++) {
+            int votes = tally.votesAt(i);
+            options.put(Long.toString(tally.optionId(i)), Map.of(
+                    "votes", votes,
+                    "percentage", totalVotes > 0 ? (votes * 100.0 / totalVotes) : 0.0));
+        }
+
+        return Map.of(
+                "pollId", pollId,
+                "totalVotes", totalVotes,
+                "options", options);
+    }
+
+    private static ResultsUpdate update(Long pollId, long version, PollTally tally, int[] previous) {
+        long[] optionIds = new long[tally.size()];
+        int[] indexes = new int[tally.size()];
+        int[] votes = new int[tally.size()];
+        int changed = 0;
+        int totalVotes = 0;
+        for (int i = 0; i < tally.size(); i++) {
+            optionIds[i] = tally.optionId(i);
+            int count = tally.votesAt(i);
+            totalVotes += count;
+            if (previous == null || previous[i] != count) {
+                indexes[changed] = i;
+                votes[changed++] = count;
+                if (previous != null) {
+                    previous[i] = count;
+                }
+            }
+        }
+        if (previous != null && changed == 0) {
+            return null;
+        }
+        return new ResultsUpdate(pollId, version, optionIds, Arrays.copyOf(indexes, changed),
+                Arrays.copyOf(votes, changed), totalVotes);
+    }
+
+    private static class PollBroadcastState {
+        final PollSnapshot poll;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        long lastPublishedAt = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        String lastInsight;
+        long version;
+        int[] published;
+
+        PollBroadcastState(PollSnapshot poll) {
+            this.poll = poll;
+        }
+
+        synchronized ResultsUpdate delta() {
+            if (published == null) {
+                published = new int[poll.getTally().size()];
+            }
+            ResultsUpdate delta = update(poll.getId(), version + 1, poll.getTally(), published);
+            if (delta != null) {
+                version++;
+            }
+            return delta;
+        }
+
+        synchronized ResultsUpdate snapshot() {
+            PollTally tally = poll.getTally();
+            if (published == null) {
+                published = new int[tally.size()];
+                update(poll.getId(), version, tally, published);
+            }
+            long[] optionIds = new long[published.length];
+            int[] indexes = new int[published.length];
+            int totalVotes = 0;
+            for (int i = 0; i < published.length; i++) {
+                optionIds[i] = tally.optionId(i);
+                indexes[i] = i;
+                totalVotes += published[i];
+            }
+            return new ResultsUpdate(poll.getId(), version, optionIds, indexes, published.clone(), totalVotes);
+        }
+    }
+}
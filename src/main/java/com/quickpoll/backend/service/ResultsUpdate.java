@@ -0,0 +1,24 @@
+package com.quickpoll.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record ResultsUpdate(Long pollId, long version, long[] optionIds, int[] indexes, int[] votes,
+        int totalVotes) {
+
+    public int size() {
+        return indexes.length;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Integer> options = new LinkedHashMap<>();
+        for (int i = 0; i < indexes.length; i++) {
+            options.put(Long.toString(optionIds[indexes[i]]), votes[i]);
+        }
+        return Map.of(
+                "pollId", pollId,
+                "version", version,
+                "totalVotes", totalVotes,
+                "options", options);
+    }
+}
@@ -0,0 +1,141 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.cache.WeightedLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+@Service
+public class SharePageService {
+
+    private final PollService pollService;
+    private final ITemplateEngine templateEngine;
+    private final WeightedLruCache<Long, SharePage> sharePageCache;
+    private final String baseUrl;
+    private final String frontendUrl;
+    private final long maxStalenessMs;
+    private final Counter hits;
+    private final Timer renderTimer;
+
+    public SharePageService(PollService pollService, ITemplateEngine templateEngine,
+            WeightedLruCache<Long, SharePage> sharePageCache, MeterRegistry meterRegistry,
+            @Value("${app.base-url}") String baseUrl,
+            @Value("${app.frontend-url}") String frontendUrl,
+            @Value("${app.share.max-staleness-ms:5000}") long maxStalenessMs) {
+        this.pollService = pollService;
+        this.templateEngine = templateEngine;
+        this.sharePageCache = sharePageCache;
+        this.baseUrl = baseUrl;
+        this.frontendUrl = frontendUrl;
+        this.maxStalenessMs = maxStalenessMs;
+        this.hits = Counter.builder("quickpoll.share.cache.hits")
+                .description("Share page requests served without rendering")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("quickpoll.share.render")
+                .description("Time to render a share page")
+                .register(meterRegistry);
+    }
+
+    public Optional<SharePage> getSharePage(Long pollId) {
+        SharePage page = sharePageCache.get(pollId);
+        if (page == null) {
+            return pollService.findById(pollId)
+                    .map(poll -> sharePageCache.getOrLoad(pollId, id -> render(poll)));
+        }
+        if (!page.claimCheck(System.currentTimeMillis(), maxStalenessMs)) {
+            hits.increment();
+            return Optional.of(page);
+        }
+
+        Optional<PollSnapshot> pollOpt = pollService.findById(pollId);
+        if (pollOpt.isEmpty()) {
+            sharePageCache.invalidate(pollId);
+            return Optional.empty();
+        }
+        PollSnapshot poll = pollOpt.get();
+        if (poll.totalVotes() == page.totalVotes()) {
+            hits.increment();
+            return Optional.of(page);
+        }
+        SharePage rendered = render(poll);
+        sharePageCache.put(pollId, rendered);
+        return Optional.of(rendered);
+    }
+
+    private SharePage render(PollSnapshot poll) {
+        long start = System.nanoTime();
+        int totalVotes = poll.totalVotes();
+
+        String optionsText = poll.getOptions().stream()
+                .map(PollSnapshot.OptionSnapshot::optionText)
+                .collect(Collectors.joining(" vs "));
+
+        String frontendPollUrl = frontendUrl + "/poll/" + poll.getId();
+
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("pollId", poll.getId());
+        context.setVariable("question", poll.getQuestion());
+        context.setVariable("optionsText", optionsText);
+        context.setVariable("totalVotes", totalVotes);
+        context.setVariable("shareUrl", frontendPollUrl);
+        context.setVariable("qrImageUrl", baseUrl + "/share/poll/" + poll.getId() + "/qr");
+        context.setVariable("appName", "QuickPoll");
+        context.setVariable("frontendUrl", frontendPollUrl);
+
+        byte[] html = templateEngine.process("poll-share", context).getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(html);
+        String etag = "\"share-" + poll.getId() + "-" + Long.toHexString(crc.getValue()) + "\"";
+
+        renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new SharePage(html, etag, totalVotes, System.currentTimeMillis());
+    }
+
+    public static final class SharePage {
+
+        private final byte[] html;
+        private final String etag;
+        private final int totalVotes;
+        private final AtomicLong checkedAt;
+
+        SharePage(byte[] html, String etag, int totalVotes, long renderedAt) {
+            this.html = html;
+            this.etag = etag;
+            this.totalVotes = totalVotes;
+            this.checkedAt = new AtomicLong(renderedAt);
+        }
+
+        public byte[] html() {
+            return html;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public int totalVotes() {
+            return totalVotes;
+        }
+
+        public long weight() {
+            return html.length + etag.length() * 2L + 64;
+        }
+
+        boolean claimCheck(long now, long maxStalenessMs) {
+            long checked = checkedAt.get();
+            return now - checked >= maxStalenessMs && checkedAt.compareAndSet(checked, now);
+        }
+    }
+}
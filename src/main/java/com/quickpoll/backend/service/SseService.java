@@ -1,112 +1,426 @@
 package com.quickpoll.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SseService {
 
     private final ObjectMapper objectMapper;
-    private final Map<Long, CopyOnWriteArrayList<SseEmitter>> pollEmitters = new ConcurrentHashMap<>();
-    private final Map<Long, CopyOnWriteArrayList<SseEmitter>> creatorEmitters = new ConcurrentHashMap<>();
-
-    public SseEmitter createEmitter(Long pollId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        pollEmitters.computeIfAbsent(pollId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-        emitter.onCompletion(() -> removeEmitter(pollId, emitter));
-        emitter.onTimeout(() -> removeEmitter(pollId, emitter));
+    private final VoteCounterService voteCounterService;
+    // One single-threaded lane per poll keeps each poll's events in seq order on the way to its subscribers.
+    private final ExecutorService[] fanOutLanes;
+    private final ExecutorService writerExecutor;
+    private final int subscriberQueueCapacity;
+    private final int replayBufferSize;
+    private final long emitterTimeoutMs;
+    private final long stallNanos;
+    // Concurrent sets, so connects and disconnects in a reconnect storm don't each copy the poll's subscribers.
+    private final Map<Long, Set<SseSubscriber>> pollEmitters = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseSubscriber>> creatorEmitters = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseSubscriber>> timelineEmitters = new ConcurrentHashMap<>();
+    private final Map<Long, PollEventLog> eventLogs = new ConcurrentHashMap<>();
+    private final Set<DataWithMediaType> heartbeatFrame = SseEmitter.event().comment("heartbeat").build();
+    private final MeterRegistry meterRegistry;
+    private final Counter resyncedSubscribers;
+    private final Counter replayedEvents;
+    private final Timer fanOutTimer;
+
+    public SseService(ObjectMapper objectMapper, VoteCounterService voteCounterService, MeterRegistry meterRegistry,
+            @Value("${app.sse.fan-out-threads:4}") int fanOutThreads,
+            @Value("${app.sse.writer-threads:32}") int writerThreads,
+            @Value("${app.sse.subscriber-queue-capacity:64}") int subscriberQueueCapacity,
+            @Value("${app.sse.replay-buffer-size:48}") int replayBufferSize,
+            @Value("${app.sse.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.sse.stall-timeout-ms:60000}") long stallTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.voteCounterService = voteCounterService;
+        CustomizableThreadFactory fanOutThreadFactory = new CustomizableThreadFactory("sse-fan-out-");
+        this.fanOutLanes = new ExecutorService[Math.max(fanOutThreads, 1)];
+        for (int i = 0; i < fanOutLanes.length; i++) {
+            fanOutLanes[i] = Executors.newSingleThreadExecutor(fanOutThreadFactory);
+        }
+        // Socket writes block until the client reads, so they never share threads with fan-out.
+        this.writerExecutor = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("sse-writer-"));
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+        this.replayBufferSize = replayBufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+        this.meterRegistry = meterRegistry;
+        this.resyncedSubscribers = Counter.builder("quickpoll.sse.resyncs")
+                .description("Subscribers sent a resync after overflowing their queue")
+                .register(meterRegistry);
+        this.replayedEvents = Counter.builder("quickpoll.sse.replayed.events")
+                .description("Events replayed from Last-Event-ID")
+                .register(meterRegistry);
+        this.fanOutTimer = Timer.builder("quickpoll.sse.fanout")
+                .description("Time to hand one event to every subscriber of a poll")
+                .register(meterRegistry);
+        Gauge.builder("quickpoll.sse.emitters", pollEmitters, SseService::countSubscribers)
+                .description("Open SSE emitters")
+                .tag("stream", "poll")
+                .register(meterRegistry);
+        Gauge.builder("quickpoll.sse.emitters", creatorEmitters, SseService::countSubscribers)
+                .description("Open SSE emitters")
+                .tag("stream", "creator")
+                .register(meterRegistry);
+        Gauge.builder("quickpoll.sse.emitters", timelineEmitters, SseService::countSubscribers)
+                .description("Open SSE emitters")
+                .tag("stream", "timeline")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void closeSubscribers() {
+        pollEmitters.values().forEach(subscribers -> subscribers.forEach(SseSubscriber::close));
+        creatorEmitters.values().forEach(subscribers -> subscribers.forEach(SseSubscriber::close));
+        timelineEmitters.values().forEach(subscribers -> subscribers.forEach(SseSubscriber::close));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : fanOutLanes) {
+            lane.shutdown();
+        }
+        writerExecutor.shutdown();
+    }
+
+    public SseEmitter createEmitter(Long pollId, String lastEventId, Supplier<?> voteSnapshot) {
+        return createEmitter(pollId, lastEventId, voteSnapshot, new SseEmitter(emitterTimeoutMs));
+    }
+
+    SseEmitter createEmitter(Long pollId, String lastEventId, Supplier<?> voteSnapshot, SseEmitter emitter) {
+        SseSubscriber subscriber = register(pollEmitters, pollId, emitter, lastEventId, voteSnapshot);
+        emitter.onCompletion(() -> removeEmitter(pollEmitters, pollId, subscriber, "completed"));
+        emitter.onTimeout(() -> removeEmitter(pollEmitters, pollId, subscriber, "timeout"));
         emitter.onError((ex) -> {
             log.error("SSE error for poll {}: {}", pollId, ex.getMessage());
-            removeEmitter(pollId, emitter);
+            countFailure("poll");
+            removeEmitter(pollEmitters, pollId, subscriber, "error");
         });
-        sendInitialMessage(emitter, pollId);
         return emitter;
     }
 
-    public SseEmitter createCreatorEmitter(Long pollId, String secretKey) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        creatorEmitters.computeIfAbsent(pollId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-        emitter.onCompletion(() -> removeCreatorEmitter(pollId, emitter));
-        emitter.onTimeout(() -> removeCreatorEmitter(pollId, emitter));
+    public SseEmitter createCreatorEmitter(Long pollId, String secretKey, String lastEventId,
+            Supplier<?> voteSnapshot) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        SseSubscriber subscriber = register(creatorEmitters, pollId, emitter, lastEventId, voteSnapshot);
+        emitter.onCompletion(() -> removeEmitter(creatorEmitters, pollId, subscriber, "completed"));
+        emitter.onTimeout(() -> removeEmitter(creatorEmitters, pollId, subscriber, "timeout"));
         emitter.onError((ex) -> {
             log.error("Creator SSE error for poll {}: {}", pollId, ex.getMessage());
-            removeCreatorEmitter(pollId, emitter);
+            countFailure("creator");
+            removeEmitter(creatorEmitters, pollId, subscriber, "error");
+        });
+        return emitter;
+    }
+
+    public SseEmitter createTimelineEmitter(Long pollId, Object timeline) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        SseSubscriber subscriber = register(timelineEmitters, pollId, emitter, null, null);
+        emitter.onCompletion(() -> removeEmitter(timelineEmitters, pollId, subscriber, "completed"));
+        emitter.onTimeout(() -> removeEmitter(timelineEmitters, pollId, subscriber, "timeout"));
+        emitter.onError((ex) -> {
+            log.error("Timeline SSE error for poll {}: {}", pollId, ex.getMessage());
+            countFailure("timeline");
+            removeEmitter(timelineEmitters, pollId, subscriber, "error");
         });
-        sendInitialMessage(emitter, pollId);
+        Set<DataWithMediaType> frame = frame(pollId, "timeline", timeline);
+        if (frame != null) {
+            subscriber.offer(frame);
+        }
         return emitter;
     }
 
+    public boolean hasTimelineSubscribers(Long pollId) {
+        return timelineEmitters.containsKey(pollId);
+    }
+
+    public void broadcastTimeline(Long pollId, Object timeline) {
+        Set<DataWithMediaType> frame = frame(pollId, "timeline", timeline);
+        if (frame != null) {
+            lane(pollId).execute(() -> broadcastToEmitters(timelineEmitters.get(pollId), frame, 0));
+        }
+    }
+
+    private Set<DataWithMediaType> frame(Long pollId, String eventName, Object data) {
+        try {
+            return SseEmitter.event()
+                    .name(eventName)
+                    .data(objectMapper.writeValueAsString(data))
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing SSE event {} for poll {}: {}", eventName, pollId, e.getMessage());
+            return null;
+        }
+    }
+
     public void broadcastVoteUpdate(Long pollId, Object voteData) {
-        broadcastToEmitters(pollEmitters.get(pollId), "vote-update", voteData);
-        broadcastToEmitters(creatorEmitters.get(pollId), "vote-update", voteData);
+        broadcast(pollId, "vote-update", voteData);
     }
 
     public void broadcastAutoInsight(Long pollId, String insight) {
-        Map<String, String> insightData = Map.of("insight", insight);
-        broadcastToEmitters(pollEmitters.get(pollId), "auto-insight", insightData);
-        broadcastToEmitters(creatorEmitters.get(pollId), "auto-insight", insightData);
+        broadcast(pollId, "auto-insight", Map.of("insight", insight));
     }
 
     public void broadcastResultsVisibilityChange(Long pollId, boolean visible) {
-        Map<String, Boolean> visibilityData = Map.of("resultsVisible", visible);
-        broadcastToEmitters(pollEmitters.get(pollId), "visibility-change", visibilityData);
-        broadcastToEmitters(creatorEmitters.get(pollId), "visibility-change", visibilityData);
-    }
-
-    private void broadcastToEmitters(CopyOnWriteArrayList<SseEmitter> emitters,
-            String eventName, Object data) {
-        if (emitters != null) {
-            emitters.removeIf(emitter -> {
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name(eventName)
-                            .data(objectMapper.writeValueAsString(data)));
-                    return false;
-                } catch (IOException e) {
-                    log.error("Error sending SSE message: {}", e.getMessage());
+        broadcast(pollId, "visibility-change", Map.of("resultsVisible", visible));
+    }
+
+    public SseEmitter createClosedEmitter(Long pollId, Object finalResults) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("poll-closed")
+                    .data(objectMapper.writeValueAsString(finalResults)));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public void closePoll(Long pollId, Object finalResults) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(finalResults);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing final results for poll {}: {}", pollId, e.getMessage());
+            payload = "{\"pollId\":" + pollId + "}";
+        }
+        PollEventLog eventLog = eventLog(pollId);
+        synchronized (eventLog) {
+            PollEventLog.LoggedEvent event = eventLog.append("poll-closed", payload);
+            lane(pollId).execute(() -> {
+                finish(pollEmitters.remove(pollId), event);
+                finish(creatorEmitters.remove(pollId), event);
+                finish(timelineEmitters.remove(pollId), event);
+                eventLogs.remove(pollId);
+            });
+        }
+    }
+
+    public void release(Long pollId) {
+        if (!hasSubscribers(pollId)) {
+            eventLogs.remove(pollId);
+        }
+    }
+
+    private void finish(Set<SseSubscriber> subscribers, PollEventLog.LoggedEvent event) {
+        if (subscribers != null) {
+            for (SseSubscriber subscriber : subscribers) {
+                if (!subscriber.isClosed()) {
+                    countRemoval("closed");
+                }
+                subscriber.finish(event.frame());
+            }
+        }
+    }
+
+    public boolean hasSubscribers(Long pollId) {
+        return pollEmitters.containsKey(pollId) || creatorEmitters.containsKey(pollId)
+                || timelineEmitters.containsKey(pollId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        Set<Long> pollIds = new HashSet<>(pollEmitters.keySet());
+        pollIds.addAll(creatorEmitters.keySet());
+        pollIds.addAll(timelineEmitters.keySet());
+        for (Long pollId : pollIds) {
+            lane(pollId).execute(() -> {
+                heartbeat(pollEmitters, pollId, now);
+                heartbeat(creatorEmitters, pollId, now);
+                heartbeat(timelineEmitters, pollId, now);
+                releaseIdleLog(pollId);
+            });
+        }
+    }
+
+    private void heartbeat(Map<Long, Set<SseSubscriber>> emitters, Long pollId, long now) {
+        Set<SseSubscriber> subscribers = emitters.get(pollId);
+        if (subscribers != null) {
+            subscribers.removeIf(subscriber -> {
+                if (subscriber.isClosed()) {
+                    return true;
+                }
+                if (subscriber.isStalled(now, stallNanos)) {
+                    subscriber.close();
+                    countRemoval("stalled");
+                    return true;
+                }
+                if (subscriber.offer(heartbeatFrame) == SseSubscriber.OfferResult.EVICTED) {
+                    countRemoval("evicted");
                     return true;
                 }
+                return false;
             });
+            emitters.computeIfPresent(pollId, (id, current) -> current.isEmpty() ? null : current);
         }
     }
 
-    private void sendInitialMessage(SseEmitter emitter, Long pollId) {
+    private void broadcast(Long pollId, String eventName, Object data) {
+        String payload;
         try {
-            emitter.send(SseEmitter.event()
-                    .name("connected")
-                    .data("Connected to poll " + pollId));
-        } catch (IOException e) {
-            log.error("Error sending initial SSE message", e);
+            payload = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing SSE event {} for poll {}: {}", eventName, pollId, e.getMessage());
+            return;
+        }
+        Counter egress = meterRegistry.counter("quickpoll.sse.egress.bytes", "event", eventName);
+        int bytes = payload.getBytes(StandardCharsets.UTF_8).length;
+
+        // Appending and enqueueing under the log's lock hands the lane this poll's events in seq order;
+        // subscribers skip anything at or below their floor, so a late earlier event would be lost.
+        PollEventLog eventLog = eventLog(pollId);
+        synchronized (eventLog) {
+            PollEventLog.LoggedEvent event = eventLog.append(eventName, payload);
+            lane(pollId).execute(() -> fanOutTimer.record(() -> {
+                int queued = broadcastToEmitters(pollEmitters.get(pollId), event.frame(), event.seq())
+                        + broadcastToEmitters(creatorEmitters.get(pollId), event.frame(), event.seq());
+                egress.increment((double) queued * bytes);
+            }));
         }
     }
 
-    private void removeEmitter(Long pollId, SseEmitter emitter) {
-        CopyOnWriteArrayList<SseEmitter> emitters = pollEmitters.get(pollId);
-        if (emitters != null) {
-            emitters.remove(emitter);
-            if (emitters.isEmpty()) {
-                pollEmitters.remove(pollId);
-            }
+    private ExecutorService lane(Long pollId) {
+        return fanOutLanes[Math.floorMod(pollId.hashCode(), fanOutLanes.length)];
+    }
+
+    private int broadcastToEmitters(Set<SseSubscriber> subscribers, Set<DataWithMediaType> frame,
+            long seq) {
+        if (subscribers == null) {
+            return 0;
         }
+        int[] queued = new int[1];
+        subscribers.removeIf(subscriber -> {
+            switch (subscriber.offer(frame, seq)) {
+                case QUEUED -> queued[0]++;
+                case RESYNC -> resyncedSubscribers.increment();
+                case EVICTED -> {
+                    countRemoval("evicted");
+                    return true;
+                }
+                default -> {
+                }
+            }
+            return false;
+        });
+        return queued[0];
     }
 
-    private void removeCreatorEmitter(Long pollId, SseEmitter emitter) {
-        CopyOnWriteArrayList<SseEmitter> emitters = creatorEmitters.get(pollId);
-        if (emitters != null) {
-            emitters.remove(emitter);
-            if (emitters.isEmpty()) {
-                creatorEmitters.remove(pollId);
+    private PollEventLog eventLog(Long pollId) {
+        return eventLogs.computeIfAbsent(pollId, id -> new PollEventLog(replayBufferSize));
+    }
+
+    private SseSubscriber register(Map<Long, Set<SseSubscriber>> emitters, Long pollId,
+            SseEmitter emitter, String lastEventId, Supplier<?> voteSnapshot) {
+        Set<DataWithMediaType> resyncFrame = SseEmitter.event()
+                .name("resync")
+                .data("{\"pollId\":" + pollId + "}")
+                .build();
+        Supplier<Set<DataWithMediaType>> resyncFrames = voteSnapshot == null ? () -> resyncFrame : () -> {
+            Set<DataWithMediaType> frame = frame(pollId, "resync", voteSnapshot.get());
+            return frame != null ? frame : resyncFrame;
+        };
+        PollEventLog eventLog = eventLog(pollId);
+
+        synchronized (eventLog) {
+            SseSubscriber subscriber = new SseSubscriber(emitter, subscriberQueueCapacity, resyncFrames,
+                    writerExecutor, eventLog.currentSeq());
+            emitters.compute(pollId, (id, current) -> {
+                Set<SseSubscriber> subscribers = current != null ? current : ConcurrentHashMap.newKeySet();
+                subscribers.add(subscriber);
+                return subscribers;
+            });
+            sendInitialMessage(subscriber, pollId);
+
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<Set<DataWithMediaType>> missed = eventLog.since(lastEventId);
+                if (missed == null) {
+                    subscriber.requestResync();
+                } else {
+                    missed.forEach(subscriber::offer);
+                    replayedEvents.increment(missed.size());
+                }
+            } else if (voteSnapshot != null) {
+                Set<DataWithMediaType> snapshotFrame = frame(pollId, "vote-snapshot", voteSnapshot.get());
+                if (snapshotFrame != null) {
+                    subscriber.offer(snapshotFrame);
+                }
             }
+            return subscriber;
+        }
+    }
+
+    private void sendInitialMessage(SseSubscriber subscriber, Long pollId) {
+        subscriber.offer(SseEmitter.event()
+                .name("connected")
+                .data("Connected to poll " + pollId)
+                .build());
+    }
+
+    private void countFailure(String stream) {
+        meterRegistry.counter("quickpoll.sse.emitters.failed", "stream", stream).increment();
+    }
+
+    private void countRemoval(String reason) {
+        meterRegistry.counter("quickpoll.sse.emitters.removed", "reason", reason).increment();
+    }
+
+    private static double countSubscribers(Map<Long, Set<SseSubscriber>> emitters) {
+        long count = 0;
+        for (Set<SseSubscriber> subscribers : emitters.values()) {
+            count += subscribers.size();
+        }
+        return count;
+    }
+
+    private void removeEmitter(Map<Long, Set<SseSubscriber>> emitters, Long pollId,
+            SseSubscriber subscriber, String reason) {
+        if (!subscriber.isClosed()) {
+            countRemoval(reason);
+        }
+        subscriber.abandon();
+        emitters.computeIfPresent(pollId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        releaseIdleLog(pollId);
+    }
+
+    private void releaseIdleLog(Long pollId) {
+        // A poll without a live tally has no votes to broadcast, so nobody can need its replay buffer.
+        if (!hasSubscribers(pollId) && voteCounterService.findTally(pollId) == null) {
+            eventLogs.remove(pollId);
         }
     }
 }
@@ -0,0 +1,170 @@
+package com.quickpoll.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Slf4j
+class SseSubscriber {
+
+    enum OfferResult {
+        QUEUED, SKIPPED, RESYNC, EVICTED
+    }
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<DataWithMediaType>> outbound;
+    private final Supplier<Set<DataWithMediaType>> resyncFrames;
+    private final Executor executor;
+    private final long floorSeq;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile Set<DataWithMediaType> resyncFrame;
+    private volatile boolean closed;
+    private volatile boolean finishing;
+    private volatile boolean evicted;
+    private volatile long lastWriteAt = System.nanoTime();
+    private volatile long sendStartedAt;
+
+    SseSubscriber(SseEmitter emitter, int queueCapacity, Supplier<Set<DataWithMediaType>> resyncFrames,
+            Executor executor, long floorSeq) {
+        this.emitter = emitter;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+        this.resyncFrames = resyncFrames;
+        this.executor = executor;
+        this.floorSeq = floorSeq;
+    }
+
+    boolean isClosed() {
+        return closed || finishing;
+    }
+
+    OfferResult offer(Set<DataWithMediaType> frame) {
+        return offer(frame, 0);
+    }
+
+    synchronized OfferResult offer(Set<DataWithMediaType> frame, long seq) {
+        if (closed) {
+            return OfferResult.EVICTED;
+        }
+        if (finishing) {
+            return OfferResult.SKIPPED;
+        }
+        if (seq > 0 && seq <= floorSeq) {
+            return OfferResult.SKIPPED;
+        }
+        OfferResult result = OfferResult.QUEUED;
+        if (!outbound.offer(frame)) {
+            if (resyncFrame != null) {
+                close();
+                return OfferResult.EVICTED;
+            }
+            requestResync();
+            result = OfferResult.RESYNC;
+        }
+        scheduleDrain();
+        return result;
+    }
+
+    synchronized void requestResync() {
+        outbound.clear();
+        resyncFrame = resyncFrames.get();
+        outbound.offer(resyncFrame);
+        scheduleDrain();
+    }
+
+    synchronized void finish(Set<DataWithMediaType> frame) {
+        if (closed || finishing) {
+            return;
+        }
+        if (!outbound.offer(frame)) {
+            outbound.clear();
+            outbound.offer(frame);
+        }
+        finishing = true;
+        scheduleDrain();
+    }
+
+    boolean isStalled(long now, long stallNanos) {
+        long started = sendStartedAt;
+        if (started != 0) {
+            return now - started > stallNanos;
+        }
+        return !outbound.isEmpty() && now - lastWriteAt > stallNanos;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        Set<DataWithMediaType> frame;
+        while (!closed && (frame = outbound.poll()) != null) {
+            if (frame == resyncFrame) {
+                resyncFrame = null;
+            }
+            try {
+                sendStartedAt = System.nanoTime();
+                emitter.send(frame);
+                lastWriteAt = System.nanoTime();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping SSE subscriber: {}", e.getMessage());
+                abandon();
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+        if (evicted) {
+            // Evicted while this thread was blocked in send; the write has returned, so end the response now.
+            completeEvicted();
+        }
+        draining.set(false);
+        if (!closed && !outbound.isEmpty()) {
+            scheduleDrain();
+        } else if (completeIfFinished()) {
+            emitter.complete();
+        }
+    }
+
+    private synchronized boolean completeIfFinished() {
+        if (finishing && !closed && outbound.isEmpty()) {
+            closed = true;
+            return true;
+        }
+        return false;
+    }
+
+    void abandon() {
+        closed = true;
+        outbound.clear();
+    }
+
+    void close() {
+        if (!closed) {
+            evicted = true;
+            abandon();
+            if (sendStartedAt == 0) {
+                executor.execute(this::completeEvicted);
+            }
+        }
+    }
+
+    private void completeEvicted() {
+        if (completed.compareAndSet(false, true)) {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                log.debug("SSE subscriber already completed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.quickpoll.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class VoteArchive {
+
+    private static final int MAGIC = 0x51505641;
+    private static final int INDEX_MAGIC = 0x51505649;
+    private static final int VERSION = 1;
+    private static final int BLOCK_ROWS = 4096;
+    private static final String SUFFIX = ".votes.gz";
+    private static final String INDEX_SUFFIX = ".votes.idx";
+
+    private final Path directory;
+
+    public VoteArchive(@Value("${app.votes.archive.dir:}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public boolean contains(Long pollId) {
+        return Files.isRegularFile(path(pollId));
+    }
+
+    public Writer create(Long pollId, long[] optionIds) throws IOException {
+        Path target = path(pollId);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), pollId + "-", ".tmp");
+        return new Writer(pollId, optionIds, temp, target, indexPath(pollId));
+    }
+
+    public long read(Long pollId, VoteHandler handler) {
+        Path path = path(pollId);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path), 1 << 16), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION || in.readLong() != pollId) {
+                throw new IOException("Not a vote archive for poll " + pollId + ": " + path);
+            }
+            long[] optionIds = new long[readVarInt(in)];
+            long optionId = 0;
+            for (int i = 0; i < optionIds.length; i++) {
+                optionId += readVarLong(in);
+                optionIds[i] = optionId;
+            }
+
+            long rows = 0;
+            long createdAt = 0;
+            int[] options = new int[BLOCK_ROWS];
+            long[] timestamps = new long[BLOCK_ROWS];
+            int blockRows;
+            while ((blockRows = readVarInt(in)) > 0) {
+                for (int i = 0; i < blockRows; i++) {
+                    options[i] = readVarInt(in);
+                }
+                for (int i = 0; i < blockRows; i++) {
+                    createdAt += unzigzag(readVarLong(in));
+                    timestamps[i] = createdAt;
+                }
+                for (int i = 0; i < blockRows; i++) {
+                    String token = readToken(in);
+                    if (!handler.accept(optionIds[options[i]], token, Instant.ofEpochMilli(timestamps[i]))) {
+                        return rows + i + 1;
+                    }
+                }
+                rows += blockRows;
+            }
+            if (in.readLong() != rows) {
+                throw new IOException("Truncated vote archive for poll " + pollId + ": " + path);
+            }
+            return rows;
+        } catch (EOFException e) {
+            throw new UncheckedIOException(new IOException("Truncated vote archive for poll " + pollId, e));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Looks the token up in the archive's sorted key index, so the cost is a handful of positional reads
+     * regardless of how many votes the poll had. Archives without an index answer "not voted".
+     */
+    public Long findVotedOptionId(Long pollId, String voterToken) {
+        Path path = indexPath(pollId);
+        if (!contains(pollId) || !Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(17);
+            readFully(channel, header, 0);
+            if (header.getInt() != INDEX_MAGIC || header.get() != VERSION || header.getLong() != pollId) {
+                throw new IOException("Not a vote index for poll " + pollId + ": " + path);
+            }
+            long[] optionIds = new long[header.getInt()];
+            ByteBuffer options = ByteBuffer.allocate(optionIds.length * 8 + 8);
+            readFully(channel, options, header.capacity());
+            for (int i = 0; i < optionIds.length; i++) {
+                optionIds[i] = options.getLong();
+            }
+            long entries = options.getLong();
+            long first = header.capacity() + options.capacity();
+
+            long mask = optionMask(optionIds.length);
+            long prefix = tokenKey(voterToken) & ~mask;
+            ByteBuffer entry = ByteBuffer.allocate(8);
+            long low = 0;
+            long high = entries;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (readEntry(channel, entry, first + middle * 8) < prefix) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low == entries) {
+                return null;
+            }
+            long found = readEntry(channel, entry, first + low * 8);
+            return (found & ~mask) == prefix ? optionIds[(int) (found & mask)] : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(Long pollId) {
+        return directory.resolve(Long.toString(pollId / 10_000)).resolve(pollId + SUFFIX);
+    }
+
+    private Path indexPath(Long pollId) {
+        return directory.resolve(Long.toString(pollId / 10_000)).resolve(pollId + INDEX_SUFFIX);
+    }
+
+    @FunctionalInterface
+    public interface VoteHandler {
+        boolean accept(long optionId, String voterToken, Instant createdAt);
+    }
+
+    public static final class Writer implements AutoCloseable {
+
+        private final Long pollId;
+        private final long[] optionIds;
+        private final Path temp;
+        private final Path target;
+        private final Path indexTarget;
+        private final MessageDigest digest = sha256();
+        private final long optionMask;
+        private long[] keys = new long[BLOCK_ROWS];
+        private final FileChannel channel;
+        private final GZIPOutputStream gzip;
+        private final DataOutputStream out;
+        private final int[] options = new int[BLOCK_ROWS];
+        private final long[] timestamps = new long[BLOCK_ROWS];
+        private final List<String> tokens = new ArrayList<>(BLOCK_ROWS);
+        private long previousCreatedAt;
+        private long rows;
+        private boolean committed;
+
+        private Writer(Long pollId, long[] optionIds, Path temp, Path target, Path indexTarget) throws IOException {
+            this.pollId = pollId;
+            this.optionIds = optionIds;
+            this.temp = temp;
+            this.target = target;
+            this.indexTarget = indexTarget;
+            this.optionMask = optionMask(optionIds.length);
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.gzip = new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            this.out = new DataOutputStream(new BufferedOutputStream(gzip, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(pollId);
+            writeVarLong(out, optionIds.length);
+            long previous = 0;
+            for (long optionId : optionIds) {
+                writeVarLong(out, optionId - previous);
+                previous = optionId;
+            }
+        }
+
+        public void append(long optionId, String voterToken, Instant createdAt) throws IOException {
+            int index = tokens.size();
+            options[index] = optionIndex(optionId);
+            timestamps[index] = createdAt.toEpochMilli();
+            tokens.add(voterToken);
+            long row = rows() - 1;
+            if (row == keys.length) {
+                keys = Arrays.copyOf(keys, Math.toIntExact(row * 2));
+            }
+            keys[(int) row] = tokenKey(digest, voterToken) & ~optionMask | options[index];
+            if (tokens.size() == BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        public long rows() {
+            return rows + tokens.size();
+        }
+
+        public void commit() throws IOException {
+            flushBlock();
+            writeVarLong(out, 0);
+            out.writeLong(rows);
+            out.flush();
+            gzip.finish();
+            channel.force(true);
+            out.close();
+            writeIndex();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        private void writeIndex() throws IOException {
+            long[] sorted = Arrays.copyOf(keys, Math.toIntExact(rows));
+            keys = null;
+            Arrays.sort(sorted);
+            Path indexTemp = Files.createTempFile(indexTarget.getParent(), pollId + "-", ".tmp");
+            try {
+                try (FileChannel indexChannel = FileChannel.open(indexTemp, StandardOpenOption.WRITE);
+                        DataOutputStream index = new DataOutputStream(
+                                new BufferedOutputStream(Channels.newOutputStream(indexChannel), 1 << 16))) {
+                    index.writeInt(INDEX_MAGIC);
+                    index.writeByte(VERSION);
+                    index.writeLong(pollId);
+                    index.writeInt(optionIds.length);
+                    for (long optionId : optionIds) {
+                        index.writeLong(optionId);
+                    }
+                    index.writeLong(sorted.length);
+                    for (long key : sorted) {
+                        index.writeLong(key);
+                    }
+                    index.flush();
+                    indexChannel.force(true);
+                }
+                Files.move(indexTemp, indexTarget, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(indexTemp);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+
+        private int optionIndex(long optionId) throws IOException {
+            for (int i = 0; i < optionIds.length; i++) {
+                if (optionIds[i] == optionId) {
+                    return i;
+                }
+            }
+            throw new IOException("Vote references unknown option " + optionId);
+        }
+
+        private void flushBlock() throws IOException {
+            int count = tokens.size();
+            if (count == 0) {
+                return;
+            }
+            writeVarLong(out, count);
+            for (int i = 0; i < count; i++) {
+                writeVarLong(out, options[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                writeVarLong(out, zigzag(timestamps[i] - previousCreatedAt));
+                previousCreatedAt = timestamps[i];
+            }
+            for (String token : tokens) {
+                writeToken(out, token);
+            }
+            rows += count;
+            tokens.clear();
+        }
+    }
+
+    /** Low bits carry the option index; the rest are the leading bits of the token's SHA-256. */
+    private static long optionMask(int optionCount) {
+        return (1L << (64 - Long.numberOfLeadingZeros(Math.max(optionCount - 1, 0)))) - 1;
+    }
+
+    private static long tokenKey(String voterToken) {
+        return tokenKey(sha256(), voterToken);
+    }
+
+    private static long tokenKey(MessageDigest digest, String voterToken) {
+        byte[] hash = digest.digest(voterToken.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(hash).getLong();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long readEntry(FileChannel channel, ByteBuffer entry, long position) throws IOException {
+        entry.clear();
+        readFully(channel, entry, position);
+        return entry.getLong();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeToken(DataOutputStream out, String token) throws IOException {
+        if (isCanonicalUuid(token)) {
+            writeVarLong(out, 0);
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (c != '-') {
+                    int high = Character.digit(c, 16);
+                    int low = Character.digit(token.charAt(++i), 16);
+                    out.writeByte(high << 4 | low);
+                }
+            }
+            return;
+        }
+        byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readToken(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length > 0) {
+            byte[] bytes = new byte[length - 1];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        char[] chars = new char[36];
+        int position = 0;
+        for (int i = 0; i < 16; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                chars[position++] = '-';
+            }
+            int b = in.readUnsignedByte();
+            chars[position++] = Character.forDigit(b >>> 4, 16);
+            chars[position++] = Character.forDigit(b & 0xf, 16);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isCanonicalUuid(String token) {
+        if (token.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = token.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        return Math.toIntExact(readVarLong(in));
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
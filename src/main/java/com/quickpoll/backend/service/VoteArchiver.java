@@ -0,0 +1,171 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class VoteArchiver {
+
+    private static final String ELIGIBLE_SQL = "SELECT p.id, p.expires_at FROM polls p WHERE p.expires_at < ? "
+            + "AND (p.expires_at, p.id) > (?, ?) AND EXISTS (SELECT 1 FROM votes v WHERE v.poll_id = p.id) "
+            + "ORDER BY p.expires_at, p.id LIMIT ?";
+    private static final String OPTIONS_SQL = "SELECT id FROM poll_options WHERE poll_id = ? ORDER BY id";
+    private static final String VOTES_SQL = "SELECT option_id, voter_token, created_at FROM votes "
+            + "WHERE poll_id = ? ORDER BY created_at, id";
+    private static final String COUNT_SQL = "SELECT count(*) FROM votes WHERE poll_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM votes WHERE id IN "
+            + "(SELECT id FROM votes WHERE poll_id = ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VoteArchive voteArchive;
+    private final boolean enabled;
+    private final long afterHours;
+    private final int pollsPerRun;
+    private final int deleteBatchSize;
+    private final Counter archivedVotes;
+    private final Counter archivedPolls;
+    private final Counter failedPolls;
+    // Keyset position of the last poll tried, so polls that keep failing don't hold back the ones behind them.
+    private Timestamp cursorExpiresAt = Timestamp.from(Instant.EPOCH);
+    private long cursorId;
+
+    public VoteArchiver(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            PlatformTransactionManager transactionManager, VoteArchive voteArchive, MeterRegistry meterRegistry,
+            @Value("${app.votes.archive.enabled:false}") boolean enabled,
+            @Value("${app.votes.archive.shared:false}") boolean shared,
+            @Value("${app.event-bus.type:local}") String eventBusType,
+            @Value("${app.votes.archive.after-hours:168}") long afterHours,
+            @Value("${app.votes.archive.polls-per-run:100}") int pollsPerRun,
+            @Value("${app.votes.archive.delete-batch-size:5000}") int deleteBatchSize,
+            @Value("${app.votes.archive.fetch-size:2000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.voteArchive = voteArchive;
+        // Archived rows are deleted for good, so a relative dir on a container's scratch disk would lose them.
+        if (enabled && !voteArchive.directory().isAbsolute()) {
+            throw new IllegalStateException("app.votes.archive.enabled=true requires an absolute "
+                    + "app.votes.archive.dir (APP_VOTE_ARCHIVE_DIR) on durable storage, got '"
+                    + voteArchive.directory() + "'");
+        }
+        // Archived rows are deleted from the shared database, so every node must be able to read the archive.
+        this.enabled = enabled && (shared || "local".equals(eventBusType));
+        if (enabled && !this.enabled) {
+            log.warn("Vote archiving disabled: app.event-bus.type={} runs several nodes but app.votes.archive.dir "
+                    + "is not marked shared (app.votes.archive.shared=true)", eventBusType);
+        }
+        this.afterHours = afterHours;
+        this.pollsPerRun = pollsPerRun;
+        this.deleteBatchSize = deleteBatchSize;
+        this.archivedVotes = Counter.builder("quickpoll.votes.archived")
+                .description("Vote rows moved from the votes table to archive files")
+                .register(meterRegistry);
+        this.archivedPolls = Counter.builder("quickpoll.votes.archived.polls")
+                .description("Polls whose votes were archived")
+                .register(meterRegistry);
+        this.failedPolls = Counter.builder("quickpoll.votes.archive.failures")
+                .description("Polls the archiver could not archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.archive.interval-ms:3600000}",
+            initialDelayString = "${app.votes.archive.initial-delay-ms:60000}")
+    public void archiveFinishedPolls() {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(afterHours, ChronoUnit.HOURS);
+        List<Map<String, Object>> polls = jdbcTemplate.queryForList(ELIGIBLE_SQL, Timestamp.from(cutoff),
+                cursorExpiresAt, cursorId, pollsPerRun);
+        for (Map<String, Object> poll : polls) {
+            Long pollId = ((Number) poll.get("id")).longValue();
+            cursorExpiresAt = (Timestamp) poll.get("expires_at");
+            cursorId = pollId;
+            try {
+                if (archivePoll(pollId) < 0) {
+                    failedPolls.increment();
+                }
+            } catch (Exception e) {
+                failedPolls.increment();
+                log.error("Error archiving votes for poll {}: {}", pollId, e.getMessage());
+            }
+        }
+        if (polls.size() < pollsPerRun) {
+            // Reached the end: start over so polls that failed get another try on the next pass.
+            cursorExpiresAt = Timestamp.from(Instant.EPOCH);
+            cursorId = 0;
+        }
+    }
+
+    public synchronized long archivePoll(Long pollId) throws IOException {
+        if (!voteArchive.contains(pollId)) {
+            writeArchive(pollId);
+        }
+
+        long archived = voteArchive.read(pollId, (optionId, voterToken, createdAt) -> true);
+        Long remaining = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, pollId);
+        if (remaining == null || remaining == 0) {
+            return 0;
+        }
+        if (remaining > archived) {
+            log.error("Poll {} has {} votes but its archive holds {}; leaving rows in place",
+                    pollId, remaining, archived);
+            return -1;
+        }
+
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(DELETE_SQL, pollId, deleteBatchSize);
+            deleted += batch;
+        } while (batch == deleteBatchSize);
+
+        archivedVotes.increment(deleted);
+        archivedPolls.increment();
+        log.info("Archived {} votes for poll {}", deleted, pollId);
+        return deleted;
+    }
+
+    private void writeArchive(Long pollId) throws IOException {
+        long[] optionIds = jdbcTemplate.queryForList(OPTIONS_SQL, Long.class, pollId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        try (VoteArchive.Writer writer = voteArchive.create(pollId, optionIds)) {
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(VOTES_SQL,
+                    (RowCallbackHandler) rs -> {
+                        try {
+                            Timestamp createdAt = rs.getTimestamp(3);
+                            writer.append(rs.getLong(1), rs.getString(2),
+                                    createdAt != null ? createdAt.toInstant() : Instant.EPOCH);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, pollId));
+            writer.commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.model.Poll;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VoteCounterService {
+
+    private static final String FLUSH_SQL = "UPDATE poll_options SET votes = votes + ? WHERE id = ?";
+    private static final String STORED_SQL = "SELECT id, votes FROM poll_options WHERE poll_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, PollTally> tallies = new ConcurrentHashMap<>();
+    private final Map<Long, PollTally> releasedUnflushed = new ConcurrentHashMap<>();
+
+    public PollTally tally(Poll poll) {
+        return tallies.computeIfAbsent(poll.getId(), id -> PollTally.of(id, poll.getOptions()));
+    }
+
+    public PollTally tally(Long pollId, long[] optionIds, long[] persistedVotes) {
+        return tallies.computeIfAbsent(pollId, id -> PollTally.of(id, optionIds, persistedVotes));
+    }
+
+    public PollTally findTally(Long pollId) {
+        return tallies.get(pollId);
+    }
+
+    public PollTally findReleased(Long pollId) {
+        return releasedUnflushed.get(pollId);
+    }
+
+    public void increment(PollTally tally, int index) {
+        tally.increment(index);
+        if (tally.isReleased()) {
+            // The journal committed this vote after the poll was finalized; persist it on the next flush.
+            releasedUnflushed.putIfAbsent(tally.getPollId(), tally);
+        }
+    }
+
+    public synchronized PollTally release(Long pollId) {
+        PollTally tally = tallies.remove(pollId);
+        if (tally != null) {
+            tally.release();
+            if (!flush(List.of(tally))) {
+                releasedUnflushed.putIfAbsent(pollId, tally);
+            }
+        }
+        return tally;
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.flush-interval-ms:500}")
+    public synchronized void flush() {
+        flush(tallies.values());
+        if (releasedUnflushed.isEmpty()) {
+            return;
+        }
+        List<PollTally> released = List.copyOf(releasedUnflushed.values());
+        if (flush(released)) {
+            for (PollTally tally : released) {
+                releasedUnflushed.remove(tally.getPollId(), tally);
+                if (hasUnflushed(tally)) {
+                    releasedUnflushed.putIfAbsent(tally.getPollId(), tally);
+                }
+            }
+        }
+    }
+
+    private static boolean hasUnflushed(PollTally tally) {
+        for (int i = 0; i < tally.size(); i++) {
+            if (tally.pendingDelta(i, tally.localCount(i)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean flush(Collection<PollTally> source) {
+        List<PendingFlush> pending = new ArrayList<>();
+        for (PollTally tally : source) {
+            for (int i = 0; i < tally.size(); i++) {
+                long current = tally.localCount(i);
+                long delta = tally.pendingDelta(i, current);
+                if (delta != 0) {
+                    pending.add(new PendingFlush(tally, i, current, delta));
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, pending.stream()
+                    .map(p -> new Object[] { p.delta(), p.tally().optionId(p.index()) })
+                    .toList());
+            pending.forEach(p -> p.tally().markFlushed(p.index(), p.current()));
+            return true;
+        } catch (Exception e) {
+            log.error("Error flushing {} vote counters: {}", pending.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    public Collection<PollTally> liveTallies() {
+        return tallies.values();
+    }
+
+    /**
+     * Rebases every live tally on the stored counts, so deltas this node never saw (relayed before it loaded
+     * the poll, or lost in transit) stop skewing its view. Returns the polls whose counts moved.
+     */
+    public synchronized List<Long> resync(long staleBefore) {
+        List<PollTally> live = List.copyOf(tallies.values());
+        if (live.isEmpty()) {
+            return List.of();
+        }
+        Long[] pollIds = live.stream().map(PollTally::getPollId).toArray(Long[]::new);
+        Map<Long, Long> stored = new HashMap<>();
+        jdbcTemplate.query(STORED_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", pollIds)),
+                (RowCallbackHandler) rs -> stored.put(rs.getLong(1), rs.getLong(2)));
+
+        List<Long> changed = new ArrayList<>();
+        for (PollTally tally : live) {
+            long[] votes = new long[tally.size()];
+            boolean complete = true;
+            for (int i = 0; i < votes.length && complete; i++) {
+                Long count = stored.get(tally.optionId(i));
+                complete = count != null;
+                votes[i] = complete ? count : 0;
+            }
+            if (complete && tally.resync(votes, staleBefore)) {
+                changed.add(tally.getPollId());
+            }
+        }
+        return changed;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record PendingFlush(PollTally tally, int index, long current, long delta) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.quickpoll.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class VoteExportService {
+
+    private static final String VOTES_SQL = "SELECT option_id, created_at FROM votes WHERE poll_id = ?";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VoteArchive voteArchive;
+    private final ObjectMapper objectMapper;
+    private final Counter exportedRows;
+
+    public VoteExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            VoteArchive voteArchive, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.votes.export.fetch-size:2000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.voteArchive = voteArchive;
+        this.objectMapper = objectMapper;
+        this.exportedRows = Counter.builder("quickpoll.votes.exported")
+                .description("Vote rows streamed to poll creators")
+                .register(meterRegistry);
+    }
+
+    public void export(PollSnapshot poll, Format format, OutputStream output) throws IOException {
+        Map<Long, String> prefixes = new HashMap<>();
+        for (PollSnapshot.OptionSnapshot option : poll.getOptions()) {
+            prefixes.put(option.id(), prefix(format, option));
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+        if (format == Format.CSV) {
+            out.write("option_id,option_text,created_at\n");
+        }
+        out.flush();
+
+        long[] rows = new long[1];
+        try {
+            if (voteArchive.contains(poll.getId())) {
+                voteArchive.read(poll.getId(), (optionId, voterToken, createdAt) -> {
+                    writeRow(out, format, prefixes, optionId, createdAt);
+                    rows[0]++;
+                    return true;
+                });
+            } else {
+                readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(VOTES_SQL,
+                        (RowCallbackHandler) rs -> {
+                            Timestamp createdAt = rs.getTimestamp(2);
+                            writeRow(out, format, prefixes, rs.getLong(1),
+                                    createdAt != null ? createdAt.toInstant() : null);
+                            rows[0]++;
+                        }, poll.getId()));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            exportedRows.increment(rows[0]);
+        }
+        out.flush();
+    }
+
+    private void writeRow(Writer out, Format format, Map<Long, String> prefixes, long optionId,
+            Instant createdAt) {
+        try {
+            out.write(prefixes.computeIfAbsent(optionId,
+                    id -> prefix(format, new PollSnapshot.OptionSnapshot(id, ""))));
+            if (format == Format.CSV) {
+                if (createdAt != null) {
+                    out.write(createdAt.toString());
+                }
+                out.write('\n');
+            } else {
+                out.write(createdAt != null ? "\"" + createdAt + "\"}\n" : "null}\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String prefix(Format format, PollSnapshot.OptionSnapshot option) {
+        if (format == Format.CSV) {
+            return option.id() + ",\"" + option.optionText().replace("\"", "\"\"") + "\",";
+        }
+        try {
+            return "{\"optionId\":" + option.id() + ",\"optionText\":"
+                    + objectMapper.writeValueAsString(option.optionText()) + ",\"createdAt\":";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
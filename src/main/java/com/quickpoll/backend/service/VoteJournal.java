@@ -0,0 +1,233 @@
+package com.quickpoll.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class VoteJournal {
+
+    private static final String INSERT_PREFIX = "INSERT INTO votes (poll_id, option_id, voter_token, created_at) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (poll_id, voter_token) DO NOTHING RETURNING poll_id, voter_token";
+    private static final int PARAMETERS_PER_ROW = 4;
+    // pgjdbc sends the bind parameter count as an unsigned 16-bit value.
+    private static final int MAX_BATCH_SIZE = 65535 / PARAMETERS_PER_ROW;
+    public static final int MAX_VOTER_TOKEN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<PendingVote> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long ackTimeoutMs;
+    private volatile boolean running;
+    private Thread writer;
+
+    public VoteJournal(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${app.votes.journal.capacity:10000}") int capacity,
+            @Value("${app.votes.journal.batch-size:500}") int batchSize,
+            @Value("${app.votes.journal.linger-ms:5}") long lingerMs,
+            @Value("${app.votes.journal.ack-timeout-ms:5000}") long ackTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        if (this.batchSize != batchSize) {
+            log.warn("Clamped app.votes.journal.batch-size from {} to {}", batchSize, this.batchSize);
+        }
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.commitTimer = Timer.builder("quickpoll.votes.journal.commit")
+                .description("Time to commit one batch of votes")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("quickpoll.votes.journal.batch.size")
+                .description("Votes per journal commit")
+                .register(meterRegistry);
+        Gauge.builder("quickpoll.votes.journal.queue", queue, BlockingQueue::size)
+                .description("Votes waiting to be committed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "vote-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public static boolean isValidVoterToken(String voterToken) {
+        if (voterToken == null || voterToken.isBlank() || voterToken.length() > MAX_VOTER_TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < voterToken.length(); i++) {
+            if (Character.isISOControl(voterToken.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public CompletableFuture<Boolean> append(Long pollId, Long optionId, String voterToken) {
+        if (!isValidVoterToken(voterToken)) {
+            throw new IllegalArgumentException("Invalid voter token");
+        }
+        PendingVote vote = new PendingVote(pollId, optionId, voterToken, Instant.now(), new CompletableFuture<>());
+        if (!queue.offer(vote)) {
+            throw new IllegalStateException("Too many votes in flight, please retry.");
+        }
+        return vote.accepted();
+    }
+
+    public boolean await(CompletableFuture<Boolean> accepted) {
+        try {
+            return accepted.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Vote could not be recorded.", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Vote could not be recorded.", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingVote> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = running ? queue.poll(100, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingVote next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingVote> batch) {
+        List<PendingVote> rows = new ArrayList<>(batch.size());
+        Set<String> keys = new HashSet<>();
+        for (PendingVote vote : batch) {
+            if (keys.add(key(vote.pollId(), vote.voterToken()))) {
+                rows.add(vote);
+            } else {
+                vote.accepted().complete(false);
+            }
+        }
+
+        batchSizes.record(rows.size());
+        long started = System.nanoTime();
+        try {
+            insert(rows);
+        } catch (Exception e) {
+            if (rows.size() == 1 || !isRowError(e)) {
+                // Connectivity and transient failures would hit every row again, so the group fails at once.
+                log.error("Error committing {} votes: {}", rows.size(), e.getMessage());
+                rows.forEach(vote -> vote.accepted().completeExceptionally(e));
+            } else {
+                // One bad row must not fail the other voters in its group, so fall back to row-by-row.
+                log.warn("Error committing {} votes, retrying individually: {}", rows.size(), e.getMessage());
+                for (PendingVote vote : rows) {
+                    try {
+                        insert(List.of(vote));
+                    } catch (Exception rowError) {
+                        log.error("Error committing vote: {}", rowError.getMessage());
+                        vote.accepted().completeExceptionally(rowError);
+                    }
+                }
+            }
+        } finally {
+            commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insert(List<PendingVote> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + INSERT_SUFFIX.length() + rows.size() * 16);
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * PARAMETERS_PER_ROW];
+        for (int i = 0; i < rows.size(); i++) {
+            PendingVote vote = rows.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args[i * PARAMETERS_PER_ROW] = vote.pollId();
+            args[i * PARAMETERS_PER_ROW + 1] = vote.optionId();
+            args[i * PARAMETERS_PER_ROW + 2] = vote.voterToken();
+            args[i * PARAMETERS_PER_ROW + 3] = Timestamp.from(vote.createdAt());
+        }
+        sql.append(INSERT_SUFFIX);
+
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(sql.toString(),
+                (RowCallbackHandler) rs -> inserted.add(key(rs.getLong("poll_id"), rs.getString("voter_token"))),
+                args);
+        for (PendingVote vote : rows) {
+            vote.accepted().complete(inserted.contains(key(vote.pollId(), vote.voterToken())));
+        }
+    }
+
+    /** Data (SQLState class 22) and integrity (class 23) errors belong to a row; anything else to the group. */
+    private static boolean isRowError(Exception e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String sqlState = sqlException.getSQLState();
+                return sqlState.startsWith("22") || sqlState.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    private static String key(Long pollId, String voterToken) {
+        return pollId + ":" + voterToken;
+    }
+
+    private record PendingVote(Long pollId, Long optionId, String voterToken, Instant createdAt,
+            CompletableFuture<Boolean> accepted) {
+    }
+}
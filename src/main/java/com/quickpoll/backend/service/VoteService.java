@@ -1,76 +1,87 @@
 package com.quickpoll.backend.service;
 
-import com.quickpoll.backend.model.Poll;
-import com.quickpoll.backend.model.PollOption;
-import com.quickpoll.backend.model.Vote;
-import com.quickpoll.backend.repository.PollOptionRepository;
 import com.quickpoll.backend.repository.VoteRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class VoteService {
 
     private final VoteRepository voteRepository;
-    private final PollOptionRepository pollOptionRepository;
-    private final SseService sseService;
-    private final PollService pollService;
+    private final VoteJournal voteJournal;
+    private final VoteCounterService voteCounterService;
+    private final ResultsBroadcaster resultsBroadcaster;
+    private final PollEventBus pollEventBus;
+    private final VoterIndex voterIndex;
+    private final VoteTimeline voteTimeline;
+    private final Timer dbPhaseTimer;
+    private final Timer broadcastPhaseTimer;
+
+    public VoteService(VoteRepository voteRepository, VoteJournal voteJournal, VoteCounterService voteCounterService,
+            ResultsBroadcaster resultsBroadcaster, PollEventBus pollEventBus, VoterIndex voterIndex,
+            VoteTimeline voteTimeline, MeterRegistry meterRegistry) {
+        this.voteRepository = voteRepository;
+        this.voteJournal = voteJournal;
+        this.voteCounterService = voteCounterService;
+        this.resultsBroadcaster = resultsBroadcaster;
+        this.pollEventBus = pollEventBus;
+        this.voterIndex = voterIndex;
+        this.voteTimeline = voteTimeline;
+        this.dbPhaseTimer = Timer.builder("quickpoll.votes.submit")
+                .description("Time spent in each phase of a vote submission")
+                .tag("phase", "db")
+                .register(meterRegistry);
+        this.broadcastPhaseTimer = Timer.builder("quickpoll.votes.submit")
+                .description("Time spent in each phase of a vote submission")
+                .tag("phase", "broadcast")
+                .register(meterRegistry);
+    }
 
-    public boolean hasVoted(Poll poll, String voterToken) {
-        return voteRepository.existsByPollAndVoterToken(poll, voterToken);
+    public boolean hasVoted(PollSnapshot poll, String voterToken) {
+        return switch (voterIndex.check(poll.getId(), voterToken)) {
+            case ABSENT -> false;
+            case RECENT -> true;
+            case POSSIBLE -> voteRepository.existsByPoll_IdAndVoterToken(poll.getId(), voterToken);
+        };
     }
 
-    public Vote submitVote(Poll poll, Long optionId, String voterToken) throws IllegalArgumentException {
-        if (hasVoted(poll, voterToken)) {
-            throw new IllegalArgumentException("User has already voted");
+    public void submitVote(PollSnapshot poll, Long optionId, String voterToken) throws IllegalArgumentException {
+        long started = System.nanoTime();
+        try {
+            record(poll, optionId, voterToken);
+        } finally {
+            dbPhaseTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
 
-        PollOption option = pollOptionRepository.findById(optionId)
-                .orElseThrow(() -> new IllegalArgumentException("Option not found"));
-
-        option.setVotes(option.getVotes() + 1);
-        pollOptionRepository.save(option);
-
-        Vote vote = new Vote();
-        vote.setPoll(poll);
-        vote.setOption(option);
-        vote.setVoterToken(voterToken);
-        vote.setCreatedAt(Instant.now());
-
-        Vote savedVote = voteRepository.save(vote);
-
-        broadcastVoteUpdate(poll);
-
-        pollService.computeAutoInsight(poll)
-                .ifPresent(insight -> sseService.broadcastAutoInsight(poll.getId(), insight));
-
-        return savedVote;
+        broadcastPhaseTimer.record(() -> {
+            resultsBroadcaster.markDirty(poll);
+            pollEventBus.publish(PollUpdate.vote(poll.getId(), optionId));
+        });
     }
 
-    private void broadcastVoteUpdate(Poll poll) {
-        int totalVotes = poll.getOptions().stream().mapToInt(PollOption::getVotes).sum();
-
-        Map<String, Object> voteData = Map.of(
-                "pollId", poll.getId(),
-                "totalVotes", totalVotes,
-                "options", poll.getOptions().stream().collect(Collectors.toMap(
-                        opt -> opt.getId().toString(),
-                        opt -> Map.of(
-                                "votes", opt.getVotes(),
-                                "percentage", totalVotes > 0 ? (opt.getVotes() * 100.0 / totalVotes) : 0.0))));
-
-        sseService.broadcastVoteUpdate(poll.getId(), voteData);
-    }
+    private void record(PollSnapshot poll, Long optionId, String voterToken) {
+        PollTally tally = poll.getTally();
+        int optionIndex = tally.indexOf(optionId);
+        if (optionIndex < 0) {
+            throw new IllegalArgumentException("Option not found");
+        }
 
-    public Long getUserVotedOptionId(Poll poll, String voterToken) {
-        Optional<Vote> existingVote = voteRepository.findByPollAndVoterToken(poll, voterToken);
-        return existingVote.map(vote -> vote.getOption().getId()).orElse(null);
+        CompletableFuture<Boolean> recorded = voteJournal.append(poll.getId(), optionId, voterToken)
+                .thenApply(accepted -> {
+                    if (accepted) {
+                        voteCounterService.increment(tally, optionIndex);
+                        voterIndex.add(poll.getId(), voterToken);
+                        voteTimeline.record(poll.getId(), 1);
+                    }
+                    return accepted;
+                });
+        if (!voteJournal.await(recorded)) {
+            throw new IllegalArgumentException("User has already voted");
+        }
     }
 
 }
@@ -0,0 +1,159 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.dto.TimelineResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class VoteTimeline {
+
+    private static final long RELEASED_RETENTION_SECONDS = 3600;
+
+    // Not a cache: a dropped series cannot be rebuilt, so series live until PollLifecycleService releases them.
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+    // Finalized polls, so late commits and relayed deltas don't recreate a released series.
+    private final Map<Long, Long> released = new ConcurrentHashMap<>();
+    private final long trackingSince = Instant.now().getEpochSecond();
+
+    public VoteTimeline(MeterRegistry meterRegistry) {
+        Gauge.builder("quickpoll.votes.timeline.polls", series, Map::size)
+                .description("Polls with an in-memory vote timeline")
+                .register(meterRegistry);
+    }
+
+    public void record(Long pollId, int votes) {
+        long now = Instant.now().getEpochSecond();
+        Series recorded = series.get(pollId);
+        if (recorded == null) {
+            recorded = series.compute(pollId, (id, current) ->
+                    current != null || released.containsKey(id) ? current : new Series(now));
+            if (recorded == null) {
+                return;
+            }
+        }
+        recorded.record(now, votes);
+    }
+
+    public void release(Long pollId) {
+        long now = Instant.now().getEpochSecond();
+        released.put(pollId, now);
+        series.remove(pollId);
+        released.values().removeIf(releasedAt -> releasedAt < now - RELEASED_RETENTION_SECONDS);
+    }
+
+    public TimelineResponse timeline(PollSnapshot poll, Resolution resolution) {
+        long to = Math.min(Instant.now().getEpochSecond(), poll.getExpiresAt().getEpochSecond());
+        long createdAt = poll.getCreatedAt() != null ? poll.getCreatedAt().getEpochSecond() : to;
+        Resolution chosen = resolution != null ? resolution : Resolution.covering(to - createdAt);
+        long toUnit = Math.floorDiv(to, chosen.bucketSeconds);
+        long fromUnit = Math.max(Math.floorDiv(createdAt, chosen.bucketSeconds), toUnit - chosen.buckets + 1);
+        fromUnit = Math.min(fromUnit, toUnit);
+        // Votes cast before this node started, or after the series was released, were never counted here.
+        boolean complete = (series.containsKey(poll.getId()) || poll.totalVotes() == 0)
+                && Math.max(createdAt, fromUnit * chosen.bucketSeconds) >= trackingSince;
+        return series(poll.getId(), chosen, fromUnit, toUnit, complete);
+    }
+
+    public TimelineResponse recent(Long pollId, int seconds) {
+        long toUnit = Instant.now().getEpochSecond();
+        long fromUnit = toUnit - seconds + 1;
+        return series(pollId, Resolution.SECOND, fromUnit, toUnit, fromUnit >= trackingSince);
+    }
+
+    private TimelineResponse series(Long pollId, Resolution resolution, long fromUnit, long toUnit,
+            boolean complete) {
+        Series recorded = series.get(pollId);
+        int[] counts = recorded != null
+                ? recorded.read(resolution, fromUnit, toUnit)
+                : new int[(int) (toUnit - fromUnit + 1)];
+        return TimelineResponse.builder()
+                .pollId(pollId)
+                .resolution(resolution.name().toLowerCase(Locale.ROOT))
+                .bucketSeconds(resolution.bucketSeconds)
+                .from(Instant.ofEpochSecond(fromUnit * resolution.bucketSeconds))
+                .counts(counts)
+                .complete(complete)
+                .build();
+    }
+
+    public enum Resolution {
+        SECOND(1, 300),
+        MINUTE(60, 1440),
+        HOUR(3600, 720);
+
+        private final int bucketSeconds;
+        private final int buckets;
+
+        Resolution(int bucketSeconds, int buckets) {
+            this.bucketSeconds = bucketSeconds;
+            this.buckets = buckets;
+        }
+
+        public static Resolution parse(String value) {
+            return value == null || value.isBlank() ? null : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+
+        static Resolution covering(long seconds) {
+            for (Resolution resolution : values()) {
+                if (seconds < (long) resolution.bucketSeconds * resolution.buckets) {
+                    return resolution;
+                }
+            }
+            return HOUR;
+        }
+    }
+
+    public static final class Series {
+
+        private final int[][] counts = new int[Resolution.values().length][];
+        private final long[] heads = new long[Resolution.values().length];
+
+        Series(long epochSecond) {
+            for (Resolution resolution : Resolution.values()) {
+                counts[resolution.ordinal()] = new int[resolution.buckets];
+                heads[resolution.ordinal()] = Math.floorDiv(epochSecond, resolution.bucketSeconds);
+            }
+        }
+
+        synchronized void record(long epochSecond, int votes) {
+            for (Resolution resolution : Resolution.values()) {
+                int level = resolution.ordinal();
+                long unit = Math.floorDiv(epochSecond, resolution.bucketSeconds);
+                advance(level, unit);
+                int[] ring = counts[level];
+                if (unit > heads[level] - ring.length) {
+                    ring[Math.floorMod(unit, ring.length)] += votes;
+                }
+            }
+        }
+
+        synchronized int[] read(Resolution resolution, long fromUnit, long toUnit) {
+            int level = resolution.ordinal();
+            int[] ring = counts[level];
+            long head = heads[level];
+            int[] result = new int[(int) (toUnit - fromUnit + 1)];
+            for (long unit = Math.max(fromUnit, head - ring.length + 1); unit <= Math.min(toUnit, head); unit++) {
+                result[(int) (unit - fromUnit)] = ring[Math.floorMod(unit, ring.length)];
+            }
+            return result;
+        }
+
+        private void advance(int level, long unit) {
+            long head = heads[level];
+            if (unit <= head) {
+                return;
+            }
+            int[] ring = counts[level];
+            for (long cleared = Math.max(head + 1, unit - ring.length + 1); cleared <= unit; cleared++) {
+                ring[Math.floorMod(cleared, ring.length)] = 0;
+            }
+            heads[level] = unit;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.cache.WeightedLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Service
+@Slf4j
+public class VoterIndex {
+
+    private static final int HASHES = 7;
+    private static final int HEADROOM = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService rebuildExecutor;
+    private final WeightedLruCache<Long, VoterFilter> voterFilterCache;
+    private final int bitsPerVoter;
+    private final int minVoters;
+    private final int maxVotersPerPoll;
+    private final int recentSlots;
+    private final Counter absent;
+    private final Counter recent;
+    private final Counter possible;
+
+    public VoterIndex(JdbcTemplate jdbcTemplate, DataSource dataSource, PlatformTransactionManager transactionManager,
+            WeightedLruCache<Long, VoterFilter> voterFilterCache, MeterRegistry meterRegistry,
+            @Value("${app.votes.voter-index.bits-per-voter:10}") int bitsPerVoter,
+            @Value("${app.votes.voter-index.min-voters:1024}") int minVoters,
+            @Value("${app.votes.voter-index.max-voters-per-poll:4194304}") int maxVotersPerPoll,
+            @Value("${app.votes.voter-index.recent-slots:64}") int recentSlots,
+            @Value("${app.votes.voter-index.fetch-size:2000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("voter-index-"));
+        this.voterFilterCache = voterFilterCache;
+        this.bitsPerVoter = Math.max(bitsPerVoter, 1);
+        this.minVoters = Math.max(minVoters, 1);
+        this.maxVotersPerPoll = Math.max(maxVotersPerPoll, this.minVoters);
+        this.recentSlots = Integer.highestOneBit(Math.max(recentSlots, 1) * 2 - 1);
+        this.absent = membershipCounter(meterRegistry, "absent");
+        this.recent = membershipCounter(meterRegistry, "recent");
+        this.possible = membershipCounter(meterRegistry, "possible");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public Membership check(Long pollId, String voterToken) {
+        VoterFilter filter = voterFilterCache.getOrLoad(pollId, this::load);
+        long hash = hash(voterToken);
+        if (!filter.mightContain(hash)) {
+            absent.increment();
+            return Membership.ABSENT;
+        }
+        if (filter.isRecent(hash, voterToken)) {
+            recent.increment();
+            return Membership.RECENT;
+        }
+        possible.increment();
+        return Membership.POSSIBLE;
+    }
+
+    public void release(Long pollId) {
+        voterFilterCache.invalidate(pollId);
+    }
+
+    public void add(Long pollId, String voterToken) {
+        VoterFilter filter = voterFilterCache.get(pollId);
+        if (filter == null) {
+            return;
+        }
+        if (filter.add(hash(voterToken), voterToken) && filter.capacity < maxVotersPerPoll
+                && filter.growing.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> grow(pollId, filter));
+        }
+    }
+
+    private void grow(Long pollId, VoterFilter full) {
+        try {
+            VoterFilter grown = newFilter(Math.max((long) full.size.get(), full.capacity) * HEADROOM);
+            // Votes added from here on go into both filters; earlier ones are already committed and get scanned.
+            full.successor = grown;
+            scan(pollId, grown);
+            voterFilterCache.update(pollId, current -> current == full ? grown : current);
+        } catch (RuntimeException e) {
+            log.error("Error growing voter index for poll {}: {}", pollId, e.getMessage());
+            full.successor = null;
+            full.growing.set(false);
+        }
+    }
+
+    private VoterFilter load(Long pollId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM votes WHERE poll_id = ?", Integer.class, pollId);
+        VoterFilter filter = newFilter((long) (count == null ? 0 : count) * HEADROOM);
+        scan(pollId, filter);
+        return filter;
+    }
+
+    private VoterFilter newFilter(long wanted) {
+        return new VoterFilter((int) Math.min(Math.max(wanted, minVoters), maxVotersPerPoll), bitsPerVoter,
+                recentSlots);
+    }
+
+    private void scan(Long pollId, VoterFilter filter) {
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                "SELECT voter_token FROM votes WHERE poll_id = ?",
+                (RowCallbackHandler) rs -> filter.load(hash(rs.getString(1))),
+                pollId));
+    }
+
+    private static Counter membershipCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("quickpoll.votes.voter-index")
+                .description("Duplicate-vote checks by voter index answer")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static long hash(String token) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            h = (h ^ token.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e53e6a5c5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public enum Membership {
+        ABSENT,
+        RECENT,
+        POSSIBLE
+    }
+
+    public static final class VoterFilter {
+
+        private final int capacity;
+        private final long bitCount;
+        private final AtomicLongArray bits;
+        private final AtomicReferenceArray<String> recent;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean growing = new AtomicBoolean();
+        private volatile VoterFilter successor;
+
+        VoterFilter(int capacity, int bitsPerVoter, int recentSlots) {
+            this.capacity = capacity;
+            int words = (int) (((long) capacity * bitsPerVoter + 63) / 64);
+            this.bitCount = words * 64L;
+            this.bits = new AtomicLongArray(words);
+            this.recent = new AtomicReferenceArray<>(recentSlots);
+        }
+
+        public long weight() {
+            return bits.length() * 8L + recent.length() * 72L + 64;
+        }
+
+        boolean mightContain(long hash) {
+            int step = (int) (hash >>> 32) | 1;
+            int probe = (int) hash;
+            for (int i = 0; i < HASHES; i++, probe += step) {
+                long bit = bit(probe);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isRecent(long hash, String voterToken) {
+            return voterToken.equals(recent.get((int) hash & (recent.length() - 1)));
+        }
+
+        void load(long hash) {
+            set(hash);
+            size.incrementAndGet();
+        }
+
+        boolean add(long hash, String voterToken) {
+            set(hash);
+            recent.set((int) hash & (recent.length() - 1), voterToken);
+            VoterFilter next = successor;
+            if (next != null) {
+                next.add(hash, voterToken);
+            }
+            return size.incrementAndGet() > capacity;
+        }
+
+        private void set(long hash) {
+            int step = (int) (hash >>> 32) | 1;
+            int probe = (int) hash;
+            for (int i = 0; i < HASHES; i++, probe += step) {
+                long bit = bit(probe);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+        }
+
+        private long bit(int probe) {
+            return ((probe & 0xffffffffL) * bitCount) >>> 32;
+        }
+    }
+}
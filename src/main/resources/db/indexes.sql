@@ -0,0 +1,3 @@
+-- Hibernate only validates the schema, so indexes the entities declare are created here on startup.
+-- Every statement must stay idempotent: this script runs against the live database on each boot.
+CREATE INDEX IF NOT EXISTS idx_polls_expires_at ON polls (expires_at);
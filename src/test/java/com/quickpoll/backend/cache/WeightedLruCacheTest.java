@@ -0,0 +1,79 @@
+package com.quickpoll.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeightedLruCacheTest {
+
+	@Test
+	void readKeepsAnEntryAheadOfEviction() {
+		WeightedLruCache<String, String> cache = new WeightedLruCache<>(3, value -> 1);
+		cache.put("a", "a");
+		cache.put("b", "b");
+		cache.put("c", "c");
+
+		assertThat(cache.get("a")).isEqualTo("a");
+		cache.put("d", "d");
+
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("a")).isEqualTo("a");
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.weight()).isEqualTo(3);
+		assertThat(cache.evictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void updateAndInvalidateKeepTheWeightInStep() {
+		WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, String::length);
+		cache.put("a", "xx");
+		cache.put("b", "yyy");
+		cache.update("a", value -> value + "xxxx");
+		cache.update("missing", value -> "never");
+
+		assertThat(cache.weight()).isEqualTo(9);
+		cache.invalidate("b");
+		assertThat(cache.weight()).isEqualTo(6);
+		assertThat(cache.get("missing")).isNull();
+	}
+
+	@Test
+	void concurrentReadsAndWritesStayWithinTheBound() throws Exception {
+		WeightedLruCache<Integer, Integer> cache = new WeightedLruCache<>(64, value -> 1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			int seed = t;
+			workers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < 50_000; i++) {
+					int key = (i * 31 + seed) % 256;
+					if (cache.getOrLoad(key, k -> k) != key) {
+						throw new IllegalStateException("Wrong value for " + key);
+					}
+					if (i % 97 == 0) {
+						cache.invalidate(key);
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertThat(cache.size()).isLessThanOrEqualTo(64);
+		assertThat(cache.weight()).isEqualTo(cache.size());
+	}
+}
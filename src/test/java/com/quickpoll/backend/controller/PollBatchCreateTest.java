@@ -0,0 +1,62 @@
+package com.quickpoll.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PollBatchCreateTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void createsEveryPollInTheBatch() throws Exception {
+		mockMvc.perform(post("/api/polls/batch").contentType(MediaType.APPLICATION_JSON).content("""
+				[{"question":"Tea or coffee?","options":"tea|coffee","expiryHours":1},
+				 {"question":"Cats or dogs?","options":"cats,dogs,neither"}]"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].secretKey").isNotEmpty());
+	}
+
+	@Test
+	void oversizedOptionIsRejectedWithItsIndex() throws Exception {
+		String longOption = "x".repeat(256);
+		mockMvc.perform(post("/api/polls/batch").contentType(MediaType.APPLICATION_JSON).content("""
+				[{"question":"Fine?","options":"yes|no"},
+				 {"question":"Too long?","options":"short|%s"}]""".formatted(longOption)))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Poll 1: Option 1 is too long"));
+	}
+
+	@Test
+	void oversizedQuestionIsRejectedOnBothCreatePaths() throws Exception {
+		String longQuestion = "q".repeat(121);
+		mockMvc.perform(post("/api/polls").contentType(MediaType.APPLICATION_JSON).content("""
+				{"question":"%s","options":"yes|no"}""".formatted(longQuestion)))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Question is too long"));
+		mockMvc.perform(post("/api/polls/batch").contentType(MediaType.APPLICATION_JSON).content("""
+				[{"question":"%s","options":"yes|no"}]""".formatted(longQuestion)))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Poll 0: Question is too long"));
+	}
+
+	@Test
+	void singleOptionIsRejectedWithItsIndex() throws Exception {
+		mockMvc.perform(post("/api/polls/batch").contentType(MediaType.APPLICATION_JSON).content("""
+				[{"question":"Only one?","options":"  | lonely |"}]"""))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Poll 0: At least two options are required"));
+	}
+}
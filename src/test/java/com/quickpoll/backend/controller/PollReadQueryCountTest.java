@@ -0,0 +1,234 @@
+package com.quickpoll.backend.controller;
+
+import com.quickpoll.backend.cache.WeightedLruCache;
+import com.quickpoll.backend.model.Poll;
+import com.quickpoll.backend.service.PollService;
+import com.quickpoll.backend.service.PollSnapshot;
+import com.quickpoll.backend.service.VoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PollReadQueryCountTest {
+
+	private static final ThreadLocal<int[]> STATEMENTS = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PollService pollService;
+
+	@Autowired
+	private VoteService voteService;
+
+	@Autowired
+	private WeightedLruCache<Long, PollSnapshot> pollSnapshotCache;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long pollId;
+	private Long votedOptionId;
+	private String voterToken;
+
+	@BeforeEach
+	void createVotedPoll() {
+		Poll poll = pollService.createPoll("Query budget?", "one|two|three", 1);
+		pollId = poll.getId();
+		votedOptionId = poll.getOptions().get(1).getId();
+		voterToken = UUID.randomUUID().toString();
+
+		PollSnapshot snapshot = pollService.findById(pollId).orElseThrow();
+		assertThat(voteService.hasVoted(snapshot, voterToken)).isFalse();
+		voteService.submitVote(snapshot, votedOptionId, voterToken);
+	}
+
+	@Test
+	void coldReadWithVoterTokenIsOneRoundTrip() throws Exception {
+		pollSnapshotCache.invalidate(pollId);
+
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId).param("voterToken", voterToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userVotedOptionId").value(votedOptionId))
+				.andExpect(jsonPath("$.options.length()").value(3))
+				.andExpect(jsonPath("$.options[1].votes").value(1)));
+
+		assertThat(statements).isEqualTo(1);
+	}
+
+	@Test
+	void coldReadWithoutVoterTokenIsOneRoundTrip() throws Exception {
+		pollSnapshotCache.invalidate(pollId);
+
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userVotedOptionId").doesNotExist())
+				.andExpect(jsonPath("$.secretKey").doesNotExist()));
+
+		assertThat(statements).isEqualTo(1);
+	}
+
+	@Test
+	void warmReadWithoutVoterTokenSkipsTheDatabase() throws Exception {
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.options[1].votes").value(1)));
+
+		assertThat(statements).isZero();
+	}
+
+	@Test
+	void warmReadForVoterIsOneRoundTrip() throws Exception {
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId).param("voterToken", voterToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userVotedOptionId").value(votedOptionId)));
+
+		assertThat(statements).isEqualTo(1);
+	}
+
+	@Test
+	void warmReadForNewVisitorIsOneRoundTrip() throws Exception {
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId).param("voterToken", UUID.randomUUID().toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userVotedOptionId").doesNotExist()));
+
+		assertThat(statements).isEqualTo(1);
+	}
+
+	@Test
+	void warmReadSeesVoteCommittedByAnotherNode() throws Exception {
+		String otherNodeVoter = UUID.randomUUID().toString();
+		assertThat(pollSnapshotCache.get(pollId)).isNotNull();
+		jdbcTemplate.update("INSERT INTO votes (poll_id, option_id, voter_token, created_at) VALUES (?, ?, ?, now())",
+				pollId, votedOptionId, otherNodeVoter);
+
+		mockMvc.perform(get("/api/polls/{id}", pollId).param("voterToken", otherNodeVoter))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userVotedOptionId").value(votedOptionId));
+	}
+
+	@Test
+	void unknownPollIsOneRoundTrip() throws Exception {
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", Long.MAX_VALUE).param("voterToken", voterToken))
+				.andExpect(status().isNotFound()));
+
+		assertThat(statements).isEqualTo(1);
+	}
+
+	@Test
+	void unchangedPollRecheckSkipsTheDatabase() throws Exception {
+		String etag = mockMvc.perform(get("/api/polls/{id}", pollId).param("voterToken", voterToken))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+
+		int statements = countStatements(() -> mockMvc
+				.perform(get("/api/polls/{id}", pollId).param("voterToken", voterToken)
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag)));
+
+		assertThat(statements).isZero();
+	}
+
+	@Test
+	void voteChangesTheEtag() throws Exception {
+		String etag = mockMvc.perform(get("/api/polls/{id}", pollId))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		PollSnapshot snapshot = pollService.findById(pollId).orElseThrow();
+		voteService.submitVote(snapshot, votedOptionId, UUID.randomUUID().toString());
+
+		String fresh = mockMvc.perform(get("/api/polls/{id}", pollId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.options[1].votes").value(2))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(fresh).isNotEqualTo(etag);
+	}
+
+	private static int countStatements(ThrowingRunnable request) throws Exception {
+		int[] counter = STATEMENTS.get();
+		counter[0] = 0;
+		request.run();
+		return counter[0];
+	}
+
+	@FunctionalInterface
+	private interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+
+	@TestConfiguration
+	static class StatementCountingConfig {
+
+		@Bean
+		static BeanPostProcessor statementCountingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? countingDataSource(dataSource) : bean;
+				}
+			};
+		}
+
+		private static DataSource countingDataSource(DataSource target) {
+			return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+					new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+						Object result = invoke(target, method, args);
+						return result instanceof Connection connection ? countingConnection(connection) : result;
+					});
+		}
+
+		private static Connection countingConnection(Connection target) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+						String name = method.getName();
+						if (name.equals("prepareStatement") || name.equals("createStatement")
+								|| name.equals("prepareCall")) {
+							STATEMENTS.get()[0]++;
+						}
+						return invoke(target, method, args);
+					});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args)
+				throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package com.quickpoll.backend.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VoteStormLoadTest {
+
+	private static final String SCENARIO = System.getProperty("loadtest.scenario", "viral");
+	private static final int VOTES = Integer.getInteger("loadtest.votes", 20_000);
+	private static final int SUBSCRIBERS = Integer.getInteger("loadtest.subscribers", 2_000);
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+	private static final int POLLS = Integer.getInteger("loadtest.polls", 200);
+	private static final double READ_RATIO = Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.8"));
+	private static final long DRAIN_TIMEOUT_MS = Long.getLong("loadtest.drain-timeout-ms", 10_000);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+
+	@Test
+	void voteStorm() throws Exception {
+		int pollCount = "viral".equals(SCENARIO) ? 1 : POLLS;
+		double readRatio = "mixed".equals(SCENARIO) ? READ_RATIO : 0.0;
+
+		List<PollTarget> polls = new ArrayList<>();
+		for (int i = 0; i < pollCount; i++) {
+			polls.add(createPoll(i));
+		}
+
+		List<SseProbe> probes = new ArrayList<>();
+		CountDownLatch connected = new CountDownLatch(SUBSCRIBERS);
+		for (int i = 0; i < SUBSCRIBERS; i++) {
+			PollTarget poll = polls.get(i % pollCount);
+			probes.add(subscribe(poll, i < pollCount, connected));
+		}
+		assertThat(connected.await(60, TimeUnit.SECONDS)).as("SSE subscribers connected").isTrue();
+
+		ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+		AtomicInteger nextVote = new AtomicInteger();
+		ConcurrentLinkedQueue<long[]> voteLatencies = new ConcurrentLinkedQueue<>();
+		ConcurrentLinkedQueue<long[]> readLatencies = new ConcurrentLinkedQueue<>();
+		LongAdder failedVotes = new LongAdder();
+		LongAdder reads = new LongAdder();
+
+		long start = System.nanoTime();
+		List<CompletableFuture<Void>> running = new ArrayList<>();
+		for (int w = 0; w < CONCURRENCY; w++) {
+			running.add(CompletableFuture.runAsync(() -> {
+				long[] voteSamples = new long[VOTES];
+				long[] readSamples = new long[VOTES];
+				int voteCount = 0;
+				int readCount = 0;
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (true) {
+					PollTarget poll = polls.get(random.nextInt(pollCount));
+					if (readRatio > 0 && random.nextDouble() < readRatio) {
+						long begin = System.nanoTime();
+						send(HttpRequest.newBuilder(uri("/api/polls/" + poll.id)).GET().build());
+						readSamples[readCount++ % VOTES] = System.nanoTime() - begin;
+						reads.increment();
+						continue;
+					}
+					int vote = nextVote.getAndIncrement();
+					if (vote >= VOTES) {
+						break;
+					}
+					long begin = System.nanoTime();
+					poll.sentAt.set(poll.started.getAndIncrement(), begin);
+					int status = vote(poll, vote);
+					voteSamples[voteCount++] = System.nanoTime() - begin;
+					if (status != 200) {
+						failedVotes.increment();
+					}
+				}
+				voteLatencies.add(Arrays.copyOf(voteSamples, voteCount));
+				readLatencies.add(Arrays.copyOf(readSamples, Math.min(readCount, VOTES)));
+			}, workers));
+		}
+		CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+		long elapsed = System.nanoTime() - start;
+		workers.shutdown();
+
+		long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+		while (System.currentTimeMillis() < deadline && polls.stream().anyMatch(p -> p.delivered() < p.accepted())) {
+			Thread.sleep(50);
+		}
+
+		long[] votes = merge(voteLatencies);
+		long[] readSamples = merge(readLatencies);
+		long[] delivery = merge(probes.stream().map(SseProbe::deliveryDelays).toList());
+		long events = probes.stream().mapToLong(p -> p.events.sum()).sum();
+
+		System.out.printf("%nscenario=%s polls=%d subscribers=%d concurrency=%d%n",
+				SCENARIO, pollCount, SUBSCRIBERS, CONCURRENCY);
+		System.out.printf("votes=%d failed=%d elapsed=%.2fs throughput=%.0f votes/s%n",
+				votes.length, failedVotes.sum(), elapsed / 1e9, votes.length / (elapsed / 1e9));
+		System.out.printf("vote latency ms: %s%n", percentiles(votes));
+		if (readSamples.length > 0) {
+			System.out.printf("reads=%d read latency ms: %s%n", reads.sum(), percentiles(readSamples));
+		}
+		System.out.printf("vote-to-SSE delay ms: %s (%d samples)%n", percentiles(delivery), delivery.length);
+		System.out.printf("vote-update events received=%d%n", events);
+
+		probes.forEach(SseProbe::cancel);
+		assertThat(votes).isNotEmpty();
+	}
+
+	private PollTarget createPoll(int index) throws Exception {
+		String body = objectMapper.writeValueAsString(Map.of(
+				"question", "Load poll " + index,
+				"options", "Red|Green|Blue|Yellow",
+				"expiryHours", 1));
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/polls"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build());
+		JsonNode poll = objectMapper.readTree(response.body());
+		long[] options = new long[poll.get("options").size()];
+		for (int i = 0; i < options.length; i++) {
+			options[i] = poll.get("options").get(i).get("id").asLong();
+		}
+		return new PollTarget(poll.get("id").asLong(), options);
+	}
+
+	private int vote(PollTarget poll, int vote) {
+		long optionId = poll.options[vote % poll.options.length];
+		String body = "{\"optionId\":" + optionId + ",\"voterToken\":\"load-" + vote + "\"}";
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/polls/" + poll.id + "/votes"))
+				.header("Content-Type", "application/json")
+				.header("X-Forwarded-For", "10." + (vote >>> 16 & 0xff) + "." + (vote >>> 8 & 0xff) + "." + (vote & 0xff))
+				.header("User-Agent", "vote-storm/" + vote)
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build());
+		if (response.statusCode() == 200) {
+			poll.accepted.incrementAndGet();
+		}
+		return response.statusCode();
+	}
+
+	private SseProbe subscribe(PollTarget poll, boolean measureDelay, CountDownLatch connected) {
+		SseProbe probe = new SseProbe(poll, measureDelay, connected);
+		client.sendAsync(HttpRequest.newBuilder(uri("/api/stream/poll/" + poll.id))
+				.header("Accept", "text/event-stream")
+				.build(), HttpResponse.BodyHandlers.fromLineSubscriber(probe));
+		return probe;
+	}
+
+	private HttpResponse<String> send(HttpRequest request) {
+		try {
+			return client.send(request, HttpResponse.BodyHandlers.ofString());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static long[] merge(Iterable<long[]> parts) {
+		List<long[]> list = new ArrayList<>();
+		parts.forEach(list::add);
+		long[] merged = new long[list.stream().mapToInt(part -> part.length).sum()];
+		int offset = 0;
+		for (long[] part : list) {
+			System.arraycopy(part, 0, merged, offset, part.length);
+			offset += part.length;
+		}
+		Arrays.sort(merged);
+		return merged;
+	}
+
+	private static String percentiles(long[] sorted) {
+		if (sorted.length == 0) {
+			return "n/a";
+		}
+		return String.format("p50=%.2f p99=%.2f p999=%.2f max=%.2f",
+				percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+				sorted[sorted.length - 1] / 1e6);
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+
+	private static final class PollTarget {
+		final long id;
+		final long[] options;
+		final AtomicInteger started = new AtomicInteger();
+		final AtomicInteger accepted = new AtomicInteger();
+		final AtomicLongArray sentAt = new AtomicLongArray(VOTES);
+		final AtomicLong lastDelivered = new AtomicLong();
+
+		PollTarget(long id, long[] options) {
+			this.id = id;
+			this.options = options;
+		}
+
+		long delivered() {
+			return lastDelivered.get();
+		}
+
+		long accepted() {
+			return accepted.get();
+		}
+	}
+
+	private static final class SseProbe implements Flow.Subscriber<String> {
+		private static final String TOTAL_VOTES = "\"totalVotes\":";
+
+		private final PollTarget poll;
+		private final boolean measureDelay;
+		private final CountDownLatch connected;
+		private final LongAdder events = new LongAdder();
+		private final List<Long> delays = new ArrayList<>();
+		private volatile Flow.Subscription subscription;
+		private String eventName;
+		private int seenTotal;
+
+		SseProbe(PollTarget poll, boolean measureDelay, CountDownLatch connected) {
+			this.poll = poll;
+			this.measureDelay = measureDelay;
+			this.connected = connected;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(String line) {
+			if (line.startsWith("event:")) {
+				eventName = line.substring(6).trim();
+			} else if (line.startsWith("data:")) {
+				if ("connected".equals(eventName)) {
+					connected.countDown();
+				} else if ("vote-update".equals(eventName)) {
+					onVoteUpdate(line);
+				}
+			} else if (line.isEmpty()) {
+				eventName = null;
+			}
+		}
+
+		private void onVoteUpdate(String line) {
+			events.increment();
+			int at = line.indexOf(TOTAL_VOTES);
+			if (at < 0) {
+				return;
+			}
+			int end = at + TOTAL_VOTES.length();
+			while (end < line.length() && Character.isDigit(line.charAt(end))) {
+				end++;
+			}
+			int total = Integer.parseInt(line.substring(at + TOTAL_VOTES.length(), end));
+			if (!measureDelay) {
+				return;
+			}
+			long now = System.nanoTime();
+			synchronized (delays) {
+				for (int k = seenTotal; k < Math.min(total, VOTES); k++) {
+					long sentAt = poll.sentAt.get(k);
+					if (sentAt != 0) {
+						delays.add(now - sentAt);
+					}
+				}
+			}
+			seenTotal = Math.max(seenTotal, total);
+			poll.lastDelivered.accumulateAndGet(total, Math::max);
+		}
+
+		long[] deliveryDelays() {
+			synchronized (delays) {
+				return delays.stream().mapToLong(Long::longValue).toArray();
+			}
+		}
+
+		void cancel() {
+			Flow.Subscription current = subscription;
+			if (current != null) {
+				current.cancel();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			connected.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+		}
+	}
+}
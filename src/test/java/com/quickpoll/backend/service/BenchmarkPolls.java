@@ -0,0 +1,40 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.model.Poll;
+import com.quickpoll.backend.model.PollOption;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkPolls {
+
+	private BenchmarkPolls() {
+	}
+
+	static PollSnapshot snapshot(long pollId, long... votes) {
+		Poll poll = Poll.builder()
+				.id(pollId)
+				.question("Which option wins?")
+				.expiresAt(Instant.now().plusSeconds(3600))
+				.resultsVisible(true)
+				.secretKey("0123456789abcdef0123456789abcdef")
+				.createdAt(Instant.now())
+				.build();
+		List<PollOption> options = new ArrayList<>();
+		for (int i = 0; i < votes.length; i++) {
+			options.add(PollOption.builder()
+					.id(pollId * 10 + i)
+					.poll(poll)
+					.optionText("Option " + (i + 1))
+					.build());
+		}
+		poll.setOptions(options);
+
+		PollTally tally = PollTally.of(pollId, options);
+		for (int i = 0; i < votes.length; i++) {
+			tally.addRemote(i, votes[i]);
+		}
+		return PollSnapshot.of(poll, tally);
+	}
+}
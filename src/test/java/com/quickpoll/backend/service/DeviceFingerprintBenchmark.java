@@ -0,0 +1,97 @@
+package com.quickpoll.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceFingerprintBenchmark {
+
+	private final DeviceFingerprintService service = new DeviceFingerprintService();
+	private MockHttpServletRequest request;
+
+	@Setup
+	public void setUp() {
+		request = new MockHttpServletRequest();
+		request.setRemoteAddr("10.0.0.7");
+		request.addHeader("X-Forwarded-For", "203.0.113.195, 70.41.3.18, 150.172.238.178");
+		request.addHeader("User-Agent", "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) "
+				+ "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1");
+		if (!legacyFingerprint(request).equals(service.generateFingerprint(request))) {
+			throw new IllegalStateException("Fingerprint engines disagree");
+		}
+	}
+
+	@Benchmark
+	public String legacy() {
+		return legacyFingerprint(request);
+	}
+
+	@Benchmark
+	public String hex() {
+		return service.generateFingerprint(request);
+	}
+
+	@Benchmark
+	public long key() {
+		return service.fingerprintKey(request);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DeviceFingerprintBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	private static String legacyFingerprint(HttpServletRequest request) {
+		String userAgent = request.getHeader("User-Agent");
+		String ipAddress;
+		String xForwardedFor = request.getHeader("X-Forwarded-For");
+		String xRealIp = request.getHeader("X-Real-IP");
+		if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+			ipAddress = xForwardedFor.split(",")[0].trim();
+		} else if (xRealIp != null && !xRealIp.isEmpty()) {
+			ipAddress = xRealIp;
+		} else {
+			ipAddress = request.getRemoteAddr();
+		}
+		String combined = ipAddress + ":" + (userAgent != null ? userAgent : "unknown");
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(combined.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hexString = new StringBuilder();
+			for (byte b : hash) {
+				String hex = Integer.toHexString(0xff & b);
+				if (hex.length() == 1) {
+					hexString.append('0');
+				}
+				hexString.append(hex);
+			}
+			return hexString.toString().substring(0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("SHA-256 not available", e);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.quickpoll.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitingContentionBenchmark {
+
+	private static final int HOT_KEYS = 16;
+	private static final long DEVICES_PER_THREAD_MASK = (1 << 18) - 1;
+
+	private RateLimitingService limiter;
+
+	@Setup
+	public void setUp() {
+		limiter = new RateLimitingService(5, 3600, 1 << 22);
+	}
+
+	@State(Scope.Thread)
+	public static class DeviceStream {
+		private long base;
+		private long next;
+
+		@Setup
+		public void setUp() {
+			base = Thread.currentThread().getId() << 40;
+		}
+	}
+
+	@Benchmark
+	public boolean distinctDevices(DeviceStream devices) {
+		long device = devices.base + (devices.next++ & DEVICES_PER_THREAD_MASK);
+		return limiter.isRateLimited(device, 7L, System.currentTimeMillis());
+	}
+
+	@Benchmark
+	public boolean hotDevices(DeviceStream devices) {
+		return limiter.isRateLimited(devices.next++ % HOT_KEYS, 7L, System.currentTimeMillis());
+	}
+}
@@ -0,0 +1,129 @@
+package com.quickpoll.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds ten million distinct devices through the limiter once per iteration and reports the heap each
+ * implementation retains afterwards. "map" is the per-key map the slot table replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class RateLimitingFootprintBenchmark {
+
+	private static final int DEVICES = 10_000_000;
+	private static final int TABLE_CAPACITY = 16 * 1024 * 1024;
+	private static final long POLL_ID = 42L;
+
+	@Param({ "table", "map" })
+	public String limiter;
+
+	private RateLimitingService table;
+	private MapRateLimiter map;
+	private long heapBefore;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		table = null;
+		map = null;
+		heapBefore = usedHeap();
+		if (limiter.equals("table")) {
+			table = new RateLimitingService(5, 3600, TABLE_CAPACITY);
+		} else {
+			map = new MapRateLimiter();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void reportFootprint() {
+		long retained = usedHeap() - heapBefore;
+		if (table != null) {
+			long tableBytes = table.getCapacity() * 8L;
+			System.out.printf("%n[table] devices=%d entries=%d overflowEvictions=%d tableBytes=%d "
+					+ "retainedBytes=%d bytesPerDevice=%.1f%n", DEVICES, table.getEntryCount(),
+					table.getOverflowEvictionCount(), tableBytes, retained, (double) retained / DEVICES);
+			if (table.getOverflowEvictionCount() >= DEVICES / 10_000) {
+				throw new IllegalStateException("Table evicted live windows: " + table.getOverflowEvictionCount());
+			}
+			if (retained > tableBytes + (16L << 20)) {
+				throw new IllegalStateException("Limiter retained " + retained + " bytes beyond its "
+						+ tableBytes + "-byte table");
+			}
+		} else {
+			System.out.printf("%n[map] devices=%d entries=%d retainedBytes=%d bytesPerDevice=%.1f%n",
+					DEVICES, map.voteAttempts.size(), retained, (double) retained / DEVICES);
+		}
+	}
+
+	@Benchmark
+	public int tenMillionDistinctDevices() {
+		long now = System.currentTimeMillis();
+		int limited = 0;
+		for (int device = 0; device < DEVICES; device++) {
+			boolean rateLimited = table != null
+					? table.isRateLimited(device, POLL_ID, now)
+					: map.isRateLimited(DeviceFingerprintService.toHex(device), POLL_ID);
+			if (rateLimited) {
+				limited++;
+			}
+		}
+		return limited;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static class MapRateLimiter {
+		private final ConcurrentMap<String, VoteAttempt> voteAttempts = new ConcurrentHashMap<>();
+
+		boolean isRateLimited(String deviceFingerprint, Long pollId) {
+			String key = deviceFingerprint + ":" + pollId;
+			VoteAttempt attempt = voteAttempts.get(key);
+			Instant now = Instant.now();
+			if (attempt == null || now.isAfter(attempt.firstAttempt.plusSeconds(3600))) {
+				voteAttempts.put(key, new VoteAttempt(now, 1));
+				return false;
+			}
+			if (attempt.attempts >= 5) {
+				return true;
+			}
+			attempt.attempts++;
+			return false;
+		}
+	}
+
+	private static class VoteAttempt {
+		private final Instant firstAttempt;
+		private int attempts;
+
+		VoteAttempt(Instant firstAttempt, int attempts) {
+			this.firstAttempt = firstAttempt;
+			this.attempts = attempts;
+		}
+	}
+}
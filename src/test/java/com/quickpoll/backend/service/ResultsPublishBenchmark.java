@@ -0,0 +1,67 @@
+package com.quickpoll.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsPublishBenchmark {
+
+	@Param({ "close", "leading" })
+	public String distribution;
+
+	private PollTally tally;
+	private List<PollSnapshot.OptionSnapshot> options;
+	private AutoInsight autoInsight;
+	private int next;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		PollSnapshot poll = "close".equals(distribution)
+				? BenchmarkPolls.snapshot(1L, 251, 249, 120, 80)
+				: BenchmarkPolls.snapshot(1L, 700, 150, 100, 50);
+		tally = poll.getTally();
+		options = poll.getOptions();
+		autoInsight = new AutoInsight();
+	}
+
+	@Benchmark
+	public String insightUnchanged() {
+		return autoInsight.current(tally, options);
+	}
+
+	@Benchmark
+	public String insightAfterVote() {
+		tally.increment(next++ & 1);
+		return autoInsight.current(tally, options);
+	}
+
+	@Benchmark
+	public int rankVote() {
+		tally.increment(next++ & 1);
+		return tally.leader();
+	}
+
+	@Benchmark
+	public Map<String, Object> buildVoteData() {
+		return ResultsBroadcaster.buildVoteData(tally.getPollId(), tally);
+	}
+}
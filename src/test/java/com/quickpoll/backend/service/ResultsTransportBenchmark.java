@@ -0,0 +1,239 @@
+package com.quickpoll.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsTransportBenchmark {
+
+	private static final long POLL_ID = 1L;
+
+	@Param({ "1", "100", "10000" })
+	public int subscribers;
+
+	@Param({ "4", "16" })
+	public int options;
+
+	private final LongAdder sseSent = new LongAdder();
+	private final LongAdder sseBytes = new LongAdder();
+	private final LongAdder socketSent = new LongAdder();
+	private final LongAdder socketBytes = new LongAdder();
+	private SseService sseService;
+	private PollSocketService pollSocketService;
+	private ResultsUpdate snapshot;
+	private ResultsUpdate delta;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		long[] votes = new long[options];
+		for (int i = 0; i < options; i++) {
+			votes[i] = 1000L * (i + 1);
+		}
+		PollTally tally = BenchmarkPolls.snapshot(POLL_ID, votes).getTally();
+		long[] optionIds = new long[options];
+		int[] indexes = new int[options];
+		int[] counts = new int[options];
+		int total = 0;
+		for (int i = 0; i < options; i++) {
+			optionIds[i] = tally.optionId(i);
+			indexes[i] = i;
+			counts[i] = tally.votesAt(i);
+			total += counts[i];
+		}
+		snapshot = new ResultsUpdate(POLL_ID, 41, optionIds, indexes, counts, total);
+		delta = new ResultsUpdate(POLL_ID, 42, optionIds, new int[] { 1 }, new int[] { counts[1] + 3 }, total + 3);
+
+		sseService = new SseService(new ObjectMapper(), new VoteCounterService(new JdbcTemplate()),
+				new SimpleMeterRegistry(), 4, 4, 64, 48, 1_800_000, 60_000);
+		pollSocketService = new PollSocketService(new SimpleMeterRegistry(), 4, 4, 64, 10_000);
+		for (int i = 0; i < subscribers; i++) {
+			sseService.createEmitter(POLL_ID, null, null, new CountingEmitter(sseSent, sseBytes));
+			pollSocketService.register(POLL_ID, new CountingSession("s" + i, socketSent, socketBytes), snapshot);
+		}
+		awaitSent(sseSent, subscribers);
+		awaitSent(socketSent, subscribers);
+
+		long sseBefore = sseBytes.sum();
+		long socketBefore = socketBytes.sum();
+		sseFanOut();
+		webSocketFanOut();
+		System.out.printf("%nBytes per update and subscriber: sse=%d websocket=%d (%d options)%n",
+				(sseBytes.sum() - sseBefore) / subscribers, (socketBytes.sum() - socketBefore) / subscribers, options);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sseService.shutdown();
+		pollSocketService.shutdown();
+	}
+
+	@Benchmark
+	public void sseFanOut() {
+		long target = sseSent.sum() + subscribers;
+		sseService.broadcastVoteUpdate(POLL_ID, delta.toMap());
+		awaitSent(sseSent, target);
+	}
+
+	@Benchmark
+	public void webSocketFanOut() {
+		long target = socketSent.sum() + subscribers;
+		pollSocketService.broadcast(delta);
+		awaitSent(socketSent, target);
+	}
+
+	private static void awaitSent(LongAdder sent, long target) {
+		while (sent.sum() < target) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static class CountingEmitter extends SseEmitter {
+		private final LongAdder sent;
+		private final LongAdder bytes;
+
+		CountingEmitter(LongAdder sent, LongAdder bytes) {
+			super(0L);
+			this.sent = sent;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public synchronized void send(Set<DataWithMediaType> items) {
+			for (DataWithMediaType item : items) {
+				bytes.add(item.getData().toString().getBytes(StandardCharsets.UTF_8).length);
+			}
+			sent.increment();
+		}
+	}
+
+	private static class CountingSession implements WebSocketSession {
+		private final String id;
+		private final LongAdder sent;
+		private final LongAdder bytes;
+		private final Map<String, Object> attributes = new HashMap<>();
+
+		CountingSession(String id, LongAdder sent, LongAdder bytes) {
+			this.id = id;
+			this.sent = sent;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) {
+			bytes.add(message.getPayloadLength());
+			sent.increment();
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public URI getUri() {
+			return null;
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return HttpHeaders.EMPTY;
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return attributes;
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return null;
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return 0;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return 0;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return List.of();
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.quickpoll.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseBroadcastBenchmark {
+
+	private static final long POLL_ID = 1L;
+
+	@Param({ "1", "100", "10000", "100000" })
+	public int emitters;
+
+	private final LongAdder sent = new LongAdder();
+	private SseService sseService;
+	private Map<String, Object> voteData;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sseService = new SseService(new ObjectMapper(), new VoteCounterService(new JdbcTemplate()),
+				new SimpleMeterRegistry(), 4, 4, 64, 48, 1_800_000, 60_000);
+		for (int i = 0; i < emitters; i++) {
+			sseService.createEmitter(POLL_ID, null, null, new CountingEmitter(sent));
+		}
+		awaitSent(emitters);
+		voteData = ResultsBroadcaster.buildVoteData(POLL_ID,
+				BenchmarkPolls.snapshot(POLL_ID, 120, 80, 40, 10).getTally());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sseService.shutdown();
+	}
+
+	@Benchmark
+	public void broadcastVoteUpdate() {
+		long target = sent.sum() + emitters;
+		sseService.broadcastVoteUpdate(POLL_ID, voteData);
+		awaitSent(target);
+	}
+
+	private void awaitSent(long target) {
+		while (sent.sum() < target) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static class CountingEmitter extends SseEmitter {
+		private final LongAdder sent;
+
+		CountingEmitter(LongAdder sent) {
+			super(0L);
+			this.sent = sent;
+		}
+
+		@Override
+		public synchronized void send(Set<DataWithMediaType> items) {
+			sent.increment();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.quickpoll.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseServiceOrderingTest {
+
+	private static final long POLL_ID = 7L;
+	private static final int SUBSCRIBERS = 8;
+	private static final int PRODUCERS = 8;
+	private static final int EVENTS_PER_PRODUCER = 250;
+	private static final Pattern EVENT_ID = Pattern.compile("id:[0-9a-z]+:(\\d+)");
+
+	private SseService sseService;
+
+	@BeforeEach
+	void setUp() {
+		sseService = new SseService(new ObjectMapper(), new VoteCounterService(new JdbcTemplate()),
+				new SimpleMeterRegistry(), 4, 4, PRODUCERS * EVENTS_PER_PRODUCER + 16, 48, 0, 60_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		sseService.shutdown();
+	}
+
+	@Test
+	void concurrentBroadcastsReachEverySubscriberInSeqOrder() throws Exception {
+		int total = PRODUCERS * EVENTS_PER_PRODUCER;
+		List<RecordingEmitter> emitters = new ArrayList<>();
+		for (int i = 0; i < SUBSCRIBERS; i++) {
+			RecordingEmitter emitter = new RecordingEmitter(total);
+			sseService.createEmitter(POLL_ID, null, null, emitter);
+			emitters.add(emitter);
+		}
+
+		ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int p = 0; p < PRODUCERS; p++) {
+			int producer = p;
+			producers.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+					sseService.broadcastVoteUpdate(POLL_ID, Map.of("producer", producer, "n", i));
+				}
+			});
+		}
+		start.countDown();
+		producers.shutdown();
+		assertThat(producers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		for (RecordingEmitter emitter : emitters) {
+			assertThat(emitter.received.await(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(emitter.seqs).hasSize(total).isSorted().doesNotHaveDuplicates();
+			assertThat(emitter.seqs.get(0)).isEqualTo(1L);
+			assertThat(emitter.seqs.get(total - 1)).isEqualTo((long) total);
+		}
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+		private final List<Long> seqs = new ArrayList<>();
+		private final CountDownLatch received;
+
+		RecordingEmitter(int expected) {
+			super(0L);
+			this.received = new CountDownLatch(expected);
+		}
+
+		@Override
+		public synchronized void send(Set<DataWithMediaType> items) {
+			StringBuilder frame = new StringBuilder();
+			items.forEach(item -> frame.append(item.getData()));
+			Matcher matcher = EVENT_ID.matcher(frame);
+			if (matcher.find()) {
+				seqs.add(Long.parseLong(matcher.group(1)));
+				received.countDown();
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.quickpoll.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteArchiveTest {
+
+	private static final long POLL_ID = 123_456L;
+	private static final long[] OPTION_IDS = { 10, 20, 35 };
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readReturnsEveryAppendedVoteInOrder() throws Exception {
+		VoteArchive archive = new VoteArchive(directory.toString());
+		List<ArchivedVote> written = votes(10_000);
+		write(archive, written);
+
+		List<ArchivedVote> read = new ArrayList<>();
+		long rows = archive.read(POLL_ID, (optionId, voterToken, createdAt) ->
+				read.add(new ArchivedVote(optionId, voterToken, createdAt)));
+
+		assertThat(rows).isEqualTo(written.size());
+		assertThat(read).containsExactlyElementsOf(written);
+	}
+
+	@Test
+	void indexFindsEveryVoterAndMissesUnknownTokens() throws Exception {
+		VoteArchive archive = new VoteArchive(directory.toString());
+		List<ArchivedVote> written = votes(5_000);
+		write(archive, written);
+
+		for (ArchivedVote vote : written) {
+			assertThat(archive.findVotedOptionId(POLL_ID, vote.voterToken())).isEqualTo(vote.optionId());
+		}
+		assertThat(archive.findVotedOptionId(POLL_ID, UUID.randomUUID().toString())).isNull();
+		assertThat(archive.findVotedOptionId(POLL_ID, "never-voted")).isNull();
+		assertThat(archive.findVotedOptionId(POLL_ID + 1, written.get(0).voterToken())).isNull();
+	}
+
+	@Test
+	void uncommittedWriterLeavesNoArchive() throws Exception {
+		VoteArchive archive = new VoteArchive(directory.toString());
+		try (VoteArchive.Writer writer = archive.create(POLL_ID, OPTION_IDS)) {
+			writer.append(OPTION_IDS[0], "voter", Instant.now());
+		}
+
+		assertThat(archive.contains(POLL_ID)).isFalse();
+		assertThat(archive.findVotedOptionId(POLL_ID, "voter")).isNull();
+	}
+
+	private static void write(VoteArchive archive, List<ArchivedVote> votes) throws Exception {
+		try (VoteArchive.Writer writer = archive.create(POLL_ID, OPTION_IDS)) {
+			for (ArchivedVote vote : votes) {
+				writer.append(vote.optionId(), vote.voterToken(), vote.createdAt());
+			}
+			writer.commit();
+		}
+	}
+
+	private static List<ArchivedVote> votes(int count) {
+		List<ArchivedVote> votes = new ArrayList<>(count);
+		long createdAt = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+		for (int i = 0; i < count; i++) {
+			// Mix canonical UUIDs with free-form tokens, and let timestamps step backwards now and then.
+			String token = i % 3 == 0 ? "device-" + i : UUID.randomUUID().toString();
+			createdAt += i % 7 == 0 ? -250 : 1_000;
+			votes.add(new ArchivedVote(OPTION_IDS[i % OPTION_IDS.length], token, Instant.ofEpochMilli(createdAt)));
+		}
+		return votes;
+	}
+
+	private record ArchivedVote(long optionId, String voterToken, Instant createdAt) {
+	}
+}
@@ -0,0 +1,80 @@
+package com.quickpoll.backend.service;
+
+import com.quickpoll.backend.model.Poll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.votes.archive.dir=${java.io.tmpdir}/quickpoll-archive-test-${random.uuid}")
+class VoteArchiverTest {
+
+	@Autowired
+	private PollService pollService;
+
+	@Autowired
+	private VoteArchiver voteArchiver;
+
+	@Autowired
+	private VoteArchive voteArchive;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long pollId;
+	private long[] optionIds;
+
+	@BeforeEach
+	void createPoll() {
+		Poll poll = pollService.createPoll("Archive me?", "yes|no", 1);
+		pollId = poll.getId();
+		optionIds = poll.getOptions().stream().mapToLong(option -> option.getId()).toArray();
+	}
+
+	@Test
+	void archivedVotesLeaveTheTableAndStayFindable() throws Exception {
+		String first = insertVote(optionIds[0]);
+		String second = insertVote(optionIds[1]);
+		String third = insertVote(optionIds[1]);
+
+		assertThat(voteArchiver.archivePoll(pollId)).isEqualTo(3);
+
+		assertThat(countVotes()).isZero();
+		assertThat(voteArchive.read(pollId, (optionId, voterToken, createdAt) -> true)).isEqualTo(3);
+		assertThat(voteArchive.findVotedOptionId(pollId, first)).isEqualTo(optionIds[0]);
+		assertThat(voteArchive.findVotedOptionId(pollId, second)).isEqualTo(optionIds[1]);
+		assertThat(voteArchive.findVotedOptionId(pollId, third)).isEqualTo(optionIds[1]);
+		assertThat(voteArchive.findVotedOptionId(pollId, UUID.randomUUID().toString())).isNull();
+	}
+
+	@Test
+	void shortArchiveBlocksDeletion() throws Exception {
+		String archived = insertVote(optionIds[0]);
+		try (VoteArchive.Writer writer = voteArchive.create(pollId, optionIds)) {
+			writer.append(optionIds[0], archived, Instant.now());
+			writer.commit();
+		}
+		insertVote(optionIds[1]);
+
+		assertThat(voteArchiver.archivePoll(pollId)).isEqualTo(-1);
+
+		assertThat(countVotes()).isEqualTo(2);
+	}
+
+	private String insertVote(long optionId) {
+		String voterToken = UUID.randomUUID().toString();
+		jdbcTemplate.update("INSERT INTO votes (poll_id, option_id, voter_token, created_at) VALUES (?, ?, ?, now())",
+				pollId, optionId, voterToken);
+		return voterToken;
+	}
+
+	private long countVotes() {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM votes WHERE poll_id = ?", Long.class, pollId);
+	}
+}